@@ -0,0 +1,149 @@
+import com.gamesbykevin.asteroids.meteor.Meteor;
+import com.gamesbykevin.asteroids.shared.Shared;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This file will measure how long the polygon collision tests take on rotating meteors.<br>
+ * The point containment test and the separating axis test are timed on the same pairs of meteors,
+ * only pairs with overlapping bounding circles are tested so the time is spent in the polygon tests.
+ * Usage: StartCollisionBenchmark [ticks per meteor count]
+ * @author GOD
+ */
+public final class StartCollisionBenchmark
+{
+    //the number of meteors in each measurement
+    private static final int[] METEOR_COUNTS = {100, 400, 1600};
+
+    //the default number of ticks to time for each meteor count
+    private static final int DEFAULT_TICKS = 100;
+
+    //the sizes a meteor can be, every split halves the size
+    private static final int[] SIZES = {Meteor.START_SIZE, Meteor.START_SIZE / 2, Meteor.START_SIZE / 4};
+
+    private StartCollisionBenchmark()
+    {
+        //no instances, this class only has the entry point
+    }
+
+    public static void main(String[] args)
+    {
+        try
+        {
+            final int ticks = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+
+            //the first pass warms up the jit and is not reported
+            for (int pass = 0; pass < 2; pass++)
+            {
+                for (int meteors : METEOR_COUNTS)
+                {
+                    final String result = measure(meteors, ticks);
+
+                    if (pass > 0)
+                        System.out.println(result);
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Rotate and move the meteors every tick and time both polygon tests on the pairs that are close
+     * @param meteors The number of meteors
+     * @param ticks The number of ticks to time
+     * @return A description of the results
+     */
+    private static String measure(final int meteors, final int ticks)
+    {
+        final Random random = new Random(meteors);
+
+        final Rectangle window = new Rectangle(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
+
+        final Meteor[] list = new Meteor[meteors];
+
+        for (int i=0; i < meteors; i++)
+        {
+            list[i] = new Meteor();
+            list[i].reset(random.nextDouble() * window.width, random.nextDouble() * window.height, Meteor.getRandomVelocity(random), Meteor.getRandomDirection(random), SIZES[random.nextInt(SIZES.length)], 1);
+
+            //pick the direction the meteor rotates
+            list[i].applyCollision(random);
+        }
+
+        //the pairs tested each tick, stored as the index of both meteors
+        int[] pairs = new int[64];
+
+        long tests = 0;
+        long containmentDuration = 0, containmentHits = 0;
+        long separatingDuration = 0, separatingHits = 0;
+
+        for (int tick = 0; tick < ticks; tick++)
+        {
+            for (Meteor meteor : list)
+            {
+                meteor.move(window);
+                
+                //the normals are only rotated by move when the separating axis test is enabled
+                if (!Shared.COLLISION_SEPARATING_AXIS)
+                    meteor.updateNormals();
+            }
+
+            int count = 0;
+
+            for (int i=0; i < meteors; i++)
+            {
+                for (int j=i + 1; j < meteors; j++)
+                {
+                    final double dx = list[i].getX() - list[j].getX();
+                    final double dy = list[i].getY() - list[j].getY();
+                    final double distance = list[i].getRadius() + list[j].getRadius();
+
+                    if ((dx * dx) + (dy * dy) > distance * distance)
+                        continue;
+
+                    if (count + 2 > pairs.length)
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+
+                    pairs[count++] = i;
+                    pairs[count++] = j;
+                }
+            }
+
+            tests += count / 2;
+
+            long start = System.nanoTime();
+
+            for (int i=0; i < count; i += 2)
+            {
+                if (list[pairs[i]].hasPolygonCollision(list[pairs[i + 1]], false))
+                    containmentHits++;
+            }
+
+            containmentDuration += System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for (int i=0; i < count; i += 2)
+            {
+                if (list[pairs[i]].hasPolygonCollision(list[pairs[i + 1]], true))
+                    separatingHits++;
+            }
+
+            separatingDuration += System.nanoTime() - start;
+        }
+
+        for (Meteor meteor : list)
+        {
+            meteor.dispose();
+        }
+
+        return "Meteors = " + meteors + ", tests = " + tests +
+            ", point containment ns/test = " + ((double)containmentDuration / Math.max(1, tests)) + ", hits = " + containmentHits +
+            ", separating axis ns/test = " + ((double)separatingDuration / Math.max(1, tests)) + ", hits = " + separatingHits;
+    }
+}
\ No newline at end of file
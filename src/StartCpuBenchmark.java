@@ -0,0 +1,93 @@
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.manager.Settings;
+import com.gamesbykevin.asteroids.menu.option.Difficulty;
+import com.gamesbykevin.asteroids.menu.option.Lives;
+import com.gamesbykevin.asteroids.menu.option.Mode;
+import com.gamesbykevin.asteroids.menu.option.OpponentDifficulty;
+import com.gamesbykevin.asteroids.ship.Cpu;
+import com.gamesbykevin.asteroids.ship.Ship;
+
+/**
+ * This file will measure how long the cpu takes to decide what to do as the number of meteors grows.<br>
+ * Usage: StartCpuBenchmark [updates per meteor count]
+ * @author GOD
+ */
+public final class StartCpuBenchmark
+{
+    //the number of meteors in each measurement
+    private static final int[] METEOR_COUNTS = {10, 50, 100, 200, 400, 800, 1600};
+    
+    //the default number of cpu updates to time for each meteor count
+    private static final int DEFAULT_UPDATES = 5000;
+    
+    private StartCpuBenchmark()
+    {
+        //no instances, this class only has the entry point
+    }
+    
+    public static void main(String[] args)
+    {
+        try
+        {
+            final int updates = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_UPDATES;
+            
+            //the first pass warms up the jit and is not reported
+            for (int pass = 0; pass < 2; pass++)
+            {
+                for (int meteors : METEOR_COUNTS)
+                {
+                    final long duration = measure(meteors, updates);
+                    
+                    if (pass > 0)
+                        System.out.println("Meteors = " + meteors + ", ns/cpu update = " + (duration / updates));
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Time the cpu updates in a cooperative game filled with meteors
+     * @param meteors The number of meteors in the game
+     * @param updates The number of cpu updates to time
+     * @return The total duration in nanoseconds
+     * @throws Exception 
+     */
+    private static long measure(final int meteors, final int updates) throws Exception
+    {
+        //the impossible opponent plans every update, so every update includes targeting the meteors
+        final Engine engine = new Engine(new Settings(Mode.Selections.Cooperative, Difficulty.Selections.Easy, Lives.Selections.Three, OpponentDifficulty.Selections.Impossible), meteors);
+        
+        while (engine.getManager().getMeteors().size() < meteors)
+        {
+            engine.getManager().addMeteor(engine.getScreen(), engine.getRandom());
+        }
+        
+        //update once so the meteors are placed in the grid
+        engine.update();
+        
+        Ship cpu = null;
+        
+        for (Ship ship : engine.getManager().getShips())
+        {
+            if (ship instanceof Cpu)
+                cpu = ship;
+        }
+        
+        final long start = System.nanoTime();
+        
+        for (int i = 0; i < updates; i++)
+        {
+            cpu.update(engine);
+        }
+        
+        final long duration = System.nanoTime() - start;
+        
+        engine.dispose();
+        
+        return duration;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.manager.Settings;
+import com.gamesbykevin.asteroids.menu.option.Difficulty;
+import com.gamesbykevin.asteroids.menu.option.Lives;
+import com.gamesbykevin.asteroids.menu.option.Mode;
+import com.gamesbykevin.asteroids.menu.option.OpponentDifficulty;
+
+/**
+ * This file will run games without a display, audio or menu as fast as possible.<br>
+ * Usage: StartHeadless [mode] [difficulty] [lives] [games] [max ticks per game] [opponent difficulty]
+ * @author GOD
+ */
+public final class StartHeadless
+{
+    //the default number of games to play
+    private static final int DEFAULT_GAMES = 100;
+
+    //a game that has not ended after this many ticks is stopped, 10 minutes at 60 updates per second
+    private static final int DEFAULT_MAX_TICKS = 36000;
+
+    private StartHeadless()
+    {
+        //no instances, this class only has the entry point
+    }
+
+    public static void main(String[] args)
+    {
+        try
+        {
+            //the options for every game
+            final Settings settings = new Settings(
+                (args.length > 0) ? Mode.Selections.valueOf(args[0]) : Mode.Selections.Race,
+                (args.length > 1) ? Difficulty.Selections.valueOf(args[1]) : Difficulty.Selections.Easy,
+                (args.length > 2) ? Lives.Selections.valueOf(args[2]) : Lives.Selections.Three,
+                (args.length > 5) ? OpponentDifficulty.Selections.valueOf(args[5]) : OpponentDifficulty.Selections.Medium);
+
+            final int games    = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_GAMES;
+            final int maxTicks = (args.length > 4) ? Integer.parseInt(args[4]) : DEFAULT_MAX_TICKS;
+
+            long totalTicks = 0;
+
+            final long start = System.nanoTime();
+
+            for (int game = 0; game < games; game++)
+            {
+                //each game gets its own seed so they are different but can be repeated
+                final Engine engine = new Engine(settings, game);
+
+                int ticks = 0;
+
+                //run until the game is over or too much time has passed
+                while (!engine.getManager().hasGameOver() && ticks < maxTicks)
+                {
+                    engine.update();
+                    ticks++;
+                }
+
+                System.out.println("Game " + game + ", ticks = " + ticks + ", level = " + engine.getManager().getLevel() + ", game over = " + engine.getManager().hasGameOver());
+
+                totalTicks += ticks;
+
+                engine.dispose();
+            }
+
+            final double seconds = (System.nanoTime() - start) / 1000000000.0;
+
+            System.out.println(games + " games in " + seconds + " seconds, " + (long)(totalTicks / seconds) + " ticks/sec, " + (long)(games * 60 / seconds) + " games/min");
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
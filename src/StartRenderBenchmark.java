@@ -0,0 +1,150 @@
+import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.levelobject.Shape;
+import com.gamesbykevin.asteroids.levelobject.ShapeAtlas;
+import com.gamesbykevin.asteroids.meteor.Meteor;
+import com.gamesbykevin.asteroids.shared.Shared;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Polygon;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Random;
+
+/**
+ * This file will measure how long it takes to draw a frame full of meteors as polygons and from the pre-drawn images.<br>
+ * Without a display the frames are drawn into an image in memory, with a display they are drawn into an image the graphics card can accelerate.
+ * Usage: StartRenderBenchmark [frames per meteor count]
+ * @author GOD
+ */
+public final class StartRenderBenchmark
+{
+    //the number of meteors in each measurement
+    private static final int[] METEOR_COUNTS = {1000, 10000, 50000};
+
+    //the default number of frames to time for each meteor count
+    private static final int DEFAULT_FRAMES = 20;
+
+    //the sizes a meteor can be, every split halves the size
+    private static final int[] SIZES = {Meteor.START_SIZE, Meteor.START_SIZE / 2, Meteor.START_SIZE / 4};
+
+    private StartRenderBenchmark()
+    {
+        //no instances, this class only has the entry point
+    }
+
+    public static void main(String[] args)
+    {
+        try
+        {
+            final int frames = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+
+            final ShapeAtlas[] atlases = new ShapeAtlas[SIZES.length];
+
+            for (int i=0; i < SIZES.length; i++)
+            {
+                atlases[i] = Meteor.getAtlas(SIZES[i], Shared.SPRITE_ATLAS_ANGLES);
+            }
+
+            //the first pass warms up the jit and is not reported
+            for (int pass = 0; pass < 2; pass++)
+            {
+                for (int meteors : METEOR_COUNTS)
+                {
+                    final long polygons = measure(meteors, frames, null);
+                    final long images   = measure(meteors, frames, atlases);
+
+                    if (pass > 0)
+                    {
+                        System.out.println("Meteors = " + meteors +
+                            ", polygon ms/frame = " + (polygons / frames / 1000000.0) +
+                            ", atlas ms/frame = " + (images / frames / 1000000.0) +
+                            ", speed up = " + ((double)polygons / images));
+                    }
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Time drawing frames of meteors at random locations, angles and sizes
+     * @param meteors The number of meteors in each frame
+     * @param frames The number of frames to time
+     * @param atlases The images for each size, null to draw polygons
+     * @return The total duration in nanoseconds
+     */
+    private static long measure(final int meteors, final int frames, final ShapeAtlas[] atlases)
+    {
+        //the same meteors are drawn by both methods
+        final Random random = new Random(meteors);
+
+        final double[] x = new double[meteors];
+        final double[] y = new double[meteors];
+        final double[] angle = new double[meteors];
+        final int[] size = new int[meteors];
+
+        for (int i=0; i < meteors; i++)
+        {
+            x[i] = random.nextDouble() * Shared.ORIGINAL_WIDTH;
+            y[i] = random.nextDouble() * Shared.ORIGINAL_HEIGHT;
+            angle[i] = Meteor.getRandomDirection(random);
+            size[i] = random.nextInt(SIZES.length);
+        }
+
+        final Polygon polygon = new Polygon(new int[6], new int[6], 6);
+
+        VolatileImage volatileImage = null;
+        BufferedImage bufferedImage = null;
+
+        if (GraphicsEnvironment.isHeadless())
+        {
+            bufferedImage = new BufferedImage(Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+        else
+        {
+            volatileImage = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleVolatileImage(Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
+        }
+
+        final long start = System.nanoTime();
+
+        for (int frame = 0; frame < frames; frame++)
+        {
+            final Graphics2D graphics = (volatileImage != null) ? volatileImage.createGraphics() : bufferedImage.createGraphics();
+
+            try
+            {
+                for (int i=0; i < meteors; i++)
+                {
+                    if (atlases != null)
+                    {
+                        atlases[size[i]].draw(graphics, x[i], y[i], angle[i]);
+                    }
+                    else
+                    {
+                        LevelObject.setCoordinates(polygon, Shape.get(Shape.Type.Meteor, SIZES[size[i]]), x[i], y[i], Math.cos(angle[i]), Math.sin(angle[i]));
+                        Meteor.render(graphics, polygon);
+                    }
+                }
+
+                //make sure the drawing has finished before the frame is counted
+                Toolkit.getDefaultToolkit().sync();
+            }
+            finally
+            {
+                graphics.dispose();
+            }
+        }
+
+        final long duration = System.nanoTime() - start;
+
+        if (volatileImage != null)
+            volatileImage.flush();
+
+        return duration;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+import com.gamesbykevin.asteroids.replay.ReplayPlayer;
+
+import java.io.File;
+
+/**
+ * This file will play a recorded replay without a display and check the game ends the same way.<br>
+ * Usage: StartReplay [file] [fast] [start tick]
+ * @author GOD
+ */
+public final class StartReplay
+{
+    private StartReplay()
+    {
+        //no instances, this class only has the entry point
+    }
+
+    public static void main(String[] args)
+    {
+        try
+        {
+            final ReplayPlayer player = new ReplayPlayer(new File(args[0]));
+
+            //play at the normal speed unless asked to go as fast as possible
+            final boolean realTime = !(args.length > 1 && args[1].equals("fast"));
+
+            System.out.println("Seed = " + player.getSeed() + ", mode = " + player.getSettings().getMode() + ", keyframes = " + player.getKeyframeCount());
+
+            long start = System.nanoTime();
+
+            //jump ahead before playing if asked
+            if (args.length > 2)
+            {
+                player.seek(Long.parseLong(args[2]));
+
+                System.out.println("Seek to tick " + args[2] + " in " + ((System.nanoTime() - start) / 1000000) + " ms");
+
+                start = System.nanoTime();
+            }
+
+            final boolean match = player.play(realTime);
+
+            System.out.println("Ticks = " + player.getTicks() + " of " + player.getExpectedTicks() + " in " + ((System.nanoTime() - start) / 1000000) + " ms");
+            System.out.println("Hash = " + Long.toHexString(player.getHash()) + ", expected = " + Long.toHexString(player.getExpectedHash()));
+            System.out.println((match) ? "Replay matches" : "Replay does NOT match");
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+import com.gamesbykevin.asteroids.manager.Settings;
+import com.gamesbykevin.asteroids.menu.option.Difficulty;
+import com.gamesbykevin.asteroids.menu.option.Lives;
+import com.gamesbykevin.asteroids.menu.option.Mode;
+import com.gamesbykevin.asteroids.menu.option.OpponentDifficulty;
+import com.gamesbykevin.asteroids.ship.CpuTuning;
+import com.gamesbykevin.asteroids.tournament.Tournament;
+
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This file will play cpu against cpu matches on every core and write a csv report.<br>
+ * The first player is played by the cpu with each tuning being tested, the opponent always uses the default tuning.
+ * Usage: StartTournament [matches per mode and tuning] [report file] [fire:death:turn ...]
+ * @author GOD
+ */
+public final class StartTournament
+{
+    //the default number of matches for each mode and tuning
+    private static final int DEFAULT_MATCHES = 100;
+    
+    //the default report file
+    private static final String DEFAULT_REPORT = "tournament.csv";
+    
+    //a match that has not ended after this many ticks is stopped, 10 minutes at 60 updates per second
+    private static final int MAX_TICKS = 36000;
+    
+    //the modes with a cpu opponent
+    private static final Mode.Selections[] MODES = {Mode.Selections.Race, Mode.Selections.Vs, Mode.Selections.Cooperative};
+    
+    //the values tried for each tuning when none are given, every combination is played
+    private static final double[] FIRE_RANGE_RATES  = {8, 10, 12};
+    private static final double[] DEATH_RANGE_RATES = {4, 5, 6};
+    private static final double[] TURN_RATE_BOOSTS  = {4, 6, 8};
+    
+    private StartTournament()
+    {
+        //no instances, this class only has the entry point
+    }
+    
+    public static void main(String[] args)
+    {
+        try
+        {
+            final int matches   = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_MATCHES;
+            final String report = (args.length > 1) ? args[1] : DEFAULT_REPORT;
+            
+            //the tunings to test
+            final List<CpuTuning> tunings = new ArrayList<>();
+            
+            for (int i = 2; i < args.length; i++)
+            {
+                tunings.add(CpuTuning.parse(args[i]));
+            }
+            
+            //sweep the values around the default tuning if none were given
+            if (tunings.isEmpty())
+            {
+                for (double fire : FIRE_RANGE_RATES)
+                {
+                    for (double death : DEATH_RANGE_RATES)
+                    {
+                        for (double turn : TURN_RATE_BOOSTS)
+                        {
+                            tunings.add(new CpuTuning(fire, death, turn));
+                        }
+                    }
+                }
+            }
+            
+            final List<Settings> settings = new ArrayList<>();
+            
+            for (Mode.Selections mode : MODES)
+            {
+                for (CpuTuning tuning : tunings)
+                {
+                    settings.add(new Settings(mode, Difficulty.Selections.Medium, Lives.Selections.Three, OpponentDifficulty.Selections.Medium, tuning, CpuTuning.DEFAULT));
+                }
+            }
+            
+            final int threads = Runtime.getRuntime().availableProcessors();
+            
+            System.out.println("Playing " + (settings.size() * matches) + " matches on " + threads + " threads");
+            
+            final Tournament tournament = new Tournament(settings, matches, MAX_TICKS);
+            
+            final long start = System.nanoTime();
+            
+            tournament.run(threads);
+            
+            final double seconds = (System.nanoTime() - start) / 1000000000.0;
+            
+            try (PrintWriter out = new PrintWriter(new FileWriter(report)))
+            {
+                tournament.writeReport(out);
+            }
+            
+            System.out.println((settings.size() * matches) + " matches in " + seconds + " seconds, report written to " + report);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
@@ -4,6 +4,9 @@ import com.gamesbykevin.framework.util.*;
 
 import com.gamesbykevin.asteroids.engine.Engine;
 import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.levelobject.Shape;
+import com.gamesbykevin.asteroids.manager.RenderStore;
+import com.gamesbykevin.asteroids.manager.RenderCommands;
 import com.gamesbykevin.asteroids.menu.option.Mode;
 import com.gamesbykevin.asteroids.meteor.Meteor;
 import com.gamesbykevin.asteroids.resources.GameAudio;
@@ -13,6 +16,10 @@ import com.gamesbykevin.asteroids.ship.Ship;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Polygon;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * The bullets that can be fired by the ship
@@ -32,40 +39,86 @@ public final class Bullet extends LevelObject implements IElement
     //our timer to track life
     private final Timer timer;
     
-    //relative coordinates for the body
-    private static final int[] XPOINTS_BODY = {-SIZE, SIZE, SIZE, -SIZE};
-    private static final int[] YPOINTS_BODY = {-SIZE, -SIZE, SIZE, SIZE};
-    
     //a bullet will have a different color depending on the source where it came from
-    private final Color color;
+    private Color color;
     
     /**
-     * Create a new bullet taking information from it's parent ship
-     * @param ship The ship the bullet was fired from
+     * Create a new bullet, reset() needs to be called before the bullet is used
      */
-    public Bullet(final Ship ship)
+    public Bullet()
     {
         //call parent constructor
         super(SIZE);
         
+        //create new timer with specified duration
+        this.timer = new Timer(BULLET_LIFE_DURATION);
+        
+        //add the body
+        super.add(Shape.get(Shape.Type.Bullet, SIZE));
+    }
+    
+    /**
+     * Reset the bullet taking information from it's parent ship
+     * @param ship The ship the bullet was fired from
+     */
+    public void reset(final Ship ship)
+    {
+        //the bullet may have been used before
+        super.unmarkDead();
+        super.resetVelocity();
+        
+        //mark parent
+        super.setParentId(ship.getId());
+        
         //set the location
         super.setX(ship.getX() - (SIZE / 2));
         super.setY(ship.getY() - (SIZE / 2));
         
+        //update the body for the new location
+        updateCoordinates(null);
+        
+        //the bullet was placed here so it will not be drawn moving from the previous location
+        super.resetPrevious();
+        
         //store the ship's color
         this.color = ship.getColor();
         
-        //create new timer with specified duration
-        this.timer = new Timer(BULLET_LIFE_DURATION);
-        
-        //add the body
-        super.add(XPOINTS_BODY, YPOINTS_BODY);
+        //start the timer over
+        this.timer.reset();
         
         //set the velocity which will be faster than the ship's speed
         super.setVelocityX(SPEED * Math.cos(ship.getAngle()) + ship.getVelocityX());
         super.setVelocityY(SPEED * Math.sin(ship.getAngle()) + ship.getVelocityY());
     }
     
+    /**
+     * Write the state of the bullet, the ship it came from is written separately
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    @Override
+    public void write(final DataOutput out) throws IOException
+    {
+        super.write(out);
+        
+        out.writeLong(timer.getRemaining());
+    }
+    
+    /**
+     * Read the state written by write()
+     * @param in Where the state is read from
+     * @param ship The ship the bullet was fired from
+     * @throws IOException 
+     */
+    public void read(final DataInput in, final Ship ship) throws IOException
+    {
+        super.read(in);
+        
+        super.setParentId(ship.getId());
+        this.color = ship.getColor();
+        this.timer.setRemaining(in.readLong());
+    }
+    
     @Override
     public void update(final Engine engine)
     {
@@ -76,8 +129,12 @@ public final class Bullet extends LevelObject implements IElement
         //if versus mode we will check if the bullets hit the ships
         if (engine.getManager().getMode() == Mode.Selections.Vs)
         {
-            for (Ship ship : engine.getManager().getShips())
+            final List<Ship> ships = engine.getManager().getShips();
+            
+            for (int i=0; i < ships.size(); i++)
             {
+                final Ship ship = ships.get(i);
+                
                 //don't check if the ship is invincible
                 if (ship.hasInvincibility())
                     continue;
@@ -87,7 +144,7 @@ public final class Bullet extends LevelObject implements IElement
                     continue;
                 
                 //if the bullet hit the ship body
-                if (hasCollision(getBoundaries().get(0), ship.getBoundaries().get(1)))
+                if (hasBoundaryCollision(0, ship, 1))
                 {
                     //flag the bullet to be removed
                     markDead();
@@ -99,9 +156,13 @@ public final class Bullet extends LevelObject implements IElement
         }
         else
         {
-            //check for meteor collision
-            for (Meteor meteor : engine.getManager().getMeteors())
+            //check for collision with the meteors close to the bullet
+            final List<Meteor> meteors = engine.getManager().getMeteors(this);
+            
+            for (int i=0; i < meteors.size(); i++)
             {
+                final Meteor meteor = meteors.get(i);
+                
                 if (hasCollision(meteor))
                 {
                     //flag the bullet to be removed
@@ -129,7 +190,7 @@ public final class Bullet extends LevelObject implements IElement
             markDead();
         
         //deduct time from the timer
-        timer.update(engine.getMain().getTime());
+        timer.update(engine.getTime());
     }
     
     @Override
@@ -137,8 +198,31 @@ public final class Bullet extends LevelObject implements IElement
     {
         for (Polygon p : getBoundaries())
         {
-            graphics.setColor(color);
-            graphics.fillPolygon(p);
+            render(graphics, p, color);
         }
     }
+    
+    /**
+     * Draw a bullet body
+     * @param graphics Graphics object
+     * @param p The polygon at the location the bullet will be drawn
+     * @param color The color of the ship the bullet came from
+     */
+    public static void render(final Graphics graphics, final Polygon p, final Color color)
+    {
+        graphics.setColor(color);
+        graphics.fillPolygon(p);
+    }
+    
+    /**
+     * Add the commands to draw a bullet body
+     * @param commands The commands drawn each frame
+     * @param store The store containing the bullet
+     * @param index The index of the bullet in the store
+     * @param color The color of the ship the bullet came from
+     */
+    public static void addCommands(final RenderCommands commands, final RenderStore store, final int index, final Color color)
+    {
+        commands.add(RenderCommands.Layer.Bullets, Shape.get(Shape.Type.Bullet, store.getSize(index)), store, index, color, true);
+    }
 }
\ No newline at end of file
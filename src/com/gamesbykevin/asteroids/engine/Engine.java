@@ -1,16 +1,27 @@
 package com.gamesbykevin.asteroids.engine;
 
+import com.gamesbykevin.asteroids.input.InputBuffer;
+import com.gamesbykevin.asteroids.input.InputSnapshot;
 import com.gamesbykevin.asteroids.main.Main;
 import com.gamesbykevin.asteroids.manager.Manager;
+import com.gamesbykevin.asteroids.manager.Settings;
 import com.gamesbykevin.asteroids.menu.CustomMenu;
+import com.gamesbykevin.asteroids.replay.ReplayRecorder;
 import com.gamesbykevin.asteroids.resources.*;
+import com.gamesbykevin.asteroids.save.SessionReader;
+import com.gamesbykevin.asteroids.save.SessionWriter;
 import com.gamesbykevin.asteroids.shared.Shared;
 
 import com.gamesbykevin.framework.input.*;
 
 import java.awt.*;
 import java.awt.event.*;
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 
 public final class Engine implements KeyListener, MouseMotionListener, MouseListener, IEngine 
 {
@@ -33,10 +44,40 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
     private Font font;
     
     //object containing all of the game elements
-    private Manager manager;
+    private volatile Manager manager;
     
     //object used to make random decisions
-    private Random random;
+    private GameRandom random;
+    
+    //input events waiting to be applied on the game thread
+    private InputBuffer inputBuffer;
+    
+    //the keys currently held down, only changed on the game thread
+    private long keysDown = 0;
+    
+    //the keyboard state for the current update
+    private InputSnapshot input = InputSnapshot.NONE;
+    
+    //how many nanoseconds are there in one second
+    private static final long NANO_SECONDS_PER_SECOND = 1000000000L;
+    
+    //the area of the game when there is no Main class
+    private Rectangle screen;
+    
+    //records the input of the current game if enabled, otherwise null
+    private ReplayRecorder recorder;
+    
+    //the options the current game was created with
+    private Settings settings;
+    
+    //writes the game every few seconds if enabled, otherwise null
+    private SessionWriter autosave;
+    
+    //the number of updates since the game was last saved
+    private int autosaveTicks = 0;
+    
+    //is the game drawn, false when the engine only runs the game
+    private boolean display = false;
     
     /**
      * The Engine that contains the game/menu objects
@@ -47,9 +88,27 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
     public Engine(final Main main) throws Exception
     {
         this.main = main;
+        this.display = true;
         this.mouse = new Mouse();
         this.keyboard = new Keyboard();
         this.resources = new Resources();
+        this.inputBuffer = new InputBuffer();
+    }
+    
+    /**
+     * Create an engine that only runs the game, there is no display, audio, input or menu.<br>
+     * The game is advanced by calling update() as fast as the caller wants.
+     * 
+     * @param settings The options to play the game with
+     * @param seed The seed used to make random decisions
+     * @throws Exception 
+     */
+    public Engine(final Settings settings, final long seed) throws Exception
+    {
+        this.screen = new Rectangle(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
+        this.random = new GameRandom(seed);
+        this.settings = settings;
+        this.manager = new Manager(this, settings);
     }
     
     /**
@@ -60,24 +119,39 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
     {
         try
         {
-            resources.dispose();
+            //there won't be resources, a menu, or input when running without a display
+            if (resources != null)
+                resources.dispose();
+            
             resources = null;
             
-            menu.dispose();
+            if (menu != null)
+                menu.dispose();
+            
             menu = null;
 
-            mouse.dispose();
+            if (mouse != null)
+                mouse.dispose();
+            
             mouse = null;
             
-            keyboard.dispose();
+            if (keyboard != null)
+                keyboard.dispose();
+            
             keyboard = null;
             
+            //make sure the end of the replay is written
+            finishRecording();
+            
             if (manager != null)
                 manager.dispose();
             
             manager = null;
             
             random = null;
+            
+            inputBuffer = null;
+            input = null;
         }
         catch(Exception e)
         {
@@ -85,11 +159,18 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         }
     }
     
+    /**
+     * Update the game, synchronized so the menu and loading screen are not drawn during an update
+     * @param main Main object
+     */
     @Override
-    public void update(Main main)
+    public synchronized void update(Main main)
     {
         try
         {
+            //apply the input received since the last update
+            updateInput();
+            
             //if resources are still loading
             if (resources.isLoading())
             {
@@ -105,8 +186,7 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
                 if (!menu.hasFocus())
                 {
                     //reset mouse and keyboard input
-                    mouse.reset();
-                    keyboard.reset();
+                    resetInput();
                 }
 
                 //update the menu
@@ -117,7 +197,24 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
                 {
                     //NOTE: MAIN GAME LOGIC HERE
                     if (manager != null)
+                    {
+                        //record the input this update will use
+                        if (recorder != null && !manager.hasGameOver())
+                            recorder.record(input, this);
+                        
                         manager.update(this);
+                        
+                        //once the game is over nothing else needs to be recorded
+                        if (manager.hasGameOver())
+                            finishRecording();
+                        
+                        //save the game every few seconds in case the application is closed
+                        if (Shared.AUTOSAVE)
+                            updateAutosave();
+                    }
+                    
+                    //the game reads the input snapshot so clear the keyboard, escape was already checked by the menu
+                    keyboard.reset();
                 }
                 
                 //if the mouse is released reset all events
@@ -131,20 +228,294 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         }
     }
     
+    /**
+     * Advance the game 1 update when running without a display, the game is not updated once it is over
+     * 
+     * @throws Exception 
+     */
+    public void update() throws Exception
+    {
+        manager.update(this);
+    }
+    
+    /**
+     * Apply every input event received from the AWT event thread to the mouse and keyboard
+     * and create the input snapshot for this update
+     */
+    private void updateInput()
+    {
+        //the keys pressed since the previous update
+        long keysPressed = 0;
+        
+        InputEvent event;
+        
+        while ((event = inputBuffer.poll()) != null)
+        {
+            switch (event.getID())
+            {
+                case KeyEvent.KEY_PRESSED:
+                    keyboard.addKeyPressed(((KeyEvent)event).getKeyCode());
+                    keysDown    |= InputSnapshot.getBit(((KeyEvent)event).getKeyCode());
+                    keysPressed |= InputSnapshot.getBit(((KeyEvent)event).getKeyCode());
+                    break;
+                    
+                case KeyEvent.KEY_RELEASED:
+                    keyboard.addKeyReleased(((KeyEvent)event).getKeyCode());
+                    keysDown &= ~InputSnapshot.getBit(((KeyEvent)event).getKeyCode());
+                    break;
+                    
+                case KeyEvent.KEY_TYPED:
+                    keyboard.addKeyTyped(((KeyEvent)event).getKeyChar());
+                    break;
+                    
+                case MouseEvent.MOUSE_CLICKED:
+                    mouse.setMouseClicked((MouseEvent)event);
+                    break;
+                    
+                case MouseEvent.MOUSE_PRESSED:
+                    mouse.setMousePressed((MouseEvent)event);
+                    break;
+                    
+                case MouseEvent.MOUSE_RELEASED:
+                    mouse.setMouseReleased((MouseEvent)event);
+                    break;
+                    
+                case MouseEvent.MOUSE_ENTERED:
+                    mouse.setMouseEntered(((MouseEvent)event).getPoint());
+                    break;
+                    
+                case MouseEvent.MOUSE_EXITED:
+                    mouse.setMouseExited(((MouseEvent)event).getPoint());
+                    break;
+                    
+                case MouseEvent.MOUSE_MOVED:
+                    mouse.setMouseMoved(((MouseEvent)event).getPoint());
+                    break;
+                    
+                case MouseEvent.MOUSE_DRAGGED:
+                    mouse.setMouseDragged(((MouseEvent)event).getPoint());
+                    break;
+            }
+        }
+        
+        //create the snapshot the game will read during this update
+        input = new InputSnapshot(keysDown, keysPressed);
+    }
+    
+    /**
+     * Reset the mouse, keyboard and input snapshot
+     */
+    private void resetInput()
+    {
+        mouse.reset();
+        keyboard.reset();
+        keysDown = 0;
+        input = InputSnapshot.NONE;
+    }
+    
+    /**
+     * Get the keyboard state for the current update
+     * @return The input snapshot
+     */
+    public InputSnapshot getInput()
+    {
+        return this.input;
+    }
+    
+    /**
+     * Set the keyboard state for the next update, used when the input comes from a replay instead of the keyboard
+     * @param input The input snapshot
+     */
+    public void setInput(final InputSnapshot input)
+    {
+        this.input = input;
+    }
+    
+    /**
+     * Write the end of the replay being recorded, if any
+     */
+    private void finishRecording()
+    {
+        if (recorder == null)
+            return;
+        
+        try
+        {
+            recorder.finish(manager.getHash());
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+        
+        recorder = null;
+    }
+    
+    /**
+     * Save the game once enough updates have passed, the save is removed once the game is over
+     */
+    private void updateAutosave()
+    {
+        final File file = new File(Shared.AUTOSAVE_FILE);
+        
+        try
+        {
+            //there is nothing to continue once the game is over
+            if (manager.hasGameOver())
+            {
+                if (file.exists() && !file.delete())
+                    System.out.println("Autosave could not be removed");
+                
+                return;
+            }
+            
+            autosaveTicks++;
+            
+            if (autosaveTicks < Shared.AUTOSAVE_TICKS)
+                return;
+            
+            autosaveTicks = 0;
+            
+            if (autosave == null)
+                autosave = new SessionWriter();
+            
+            autosave.save(this, file);
+            
+            if (Shared.DEBUG)
+                System.out.println("Autosave " + autosave.getSize() + " bytes in " + (autosave.getDuration() / 1000) + " us");
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Replace the current game with a saved game
+     * @param file The saved game
+     * @throws Exception if the file is not a save or the save is damaged
+     */
+    public void load(final File file) throws Exception
+    {
+        try (FileInputStream stream = new FileInputStream(file))
+        {
+            final SessionReader reader = new SessionReader(stream);
+            
+            //finish the replay of the previous game, the restored game is not recorded
+            finishRecording();
+            
+            if (manager != null)
+                manager.dispose();
+            
+            //create a game with the saved options then restore the state into it
+            settings = reader.getSettings();
+            manager = new Manager(this, settings);
+            
+            reader.read(this);
+        }
+    }
+    
+    /**
+     * Was the saved game created with the same menu selections
+     * @param file The saved game
+     * @param settings The options the saved game needs to have
+     * @return true if the mode, difficulty, lives and opponent difficulty are the same, false otherwise
+     * @throws Exception if the file is not a save
+     */
+    private static boolean hasSelections(final File file, final Settings settings) throws Exception
+    {
+        try (FileInputStream stream = new FileInputStream(file))
+        {
+            return new SessionReader(stream).getSettings().hasSameSelections(settings);
+        }
+    }
+    
     public Main getMain()
     {
         return main;
     }
     
+    /**
+     * Is the game drawn by this engine
+     * @return true if the engine was created with a Main class, false if it only runs the game
+     */
+    public boolean hasDisplay()
+    {
+        return display;
+    }
+    
+    /**
+     * Get the size of the original window
+     * @return Rectangle
+     */
+    public Rectangle getScreen()
+    {
+        return (main != null) ? main.getScreen() : screen;
+    }
+    
+    /**
+     * Gets the number of nanoseconds between each update
+     * @return The nanosecond duration between each update
+     */
+    public long getTime()
+    {
+        return (main != null) ? main.getTime() : (NANO_SECONDS_PER_SECOND / Shared.DEFAULT_UPS);
+    }
+    
+    /**
+     * Play game audio, nothing is played when there are no resources
+     * @param key The audio to play
+     * @param loop Do we loop the audio
+     */
+    public void playGameAudio(final Object key, final boolean loop)
+    {
+        if (resources != null)
+            resources.playGameAudio(key, loop);
+    }
+    
+    /**
+     * Stop game audio, nothing is stopped when there are no resources
+     * @param key The audio to stop
+     */
+    public void stopGameAudio(final Object key)
+    {
+        if (resources != null)
+            resources.stopGameAudio(key);
+    }
+    
     /**
      * Get our object used to make random decisions
      * @return Random
      */
-    public Random getRandom()
+    public GameRandom getRandom()
     {
         return this.random;
     }
     
+    /**
+     * Write the state of the game, including the random decisions, so it can be continued later
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    public void writeState(final DataOutput out) throws IOException
+    {
+        out.writeLong(random.getState());
+        
+        manager.write(out);
+    }
+    
+    /**
+     * Restore the state written by writeState(), the game needs to have been created with the same settings
+     * @param in Where the state is read from
+     * @throws IOException 
+     */
+    public void readState(final DataInput in) throws IOException
+    {
+        random.setState(in.readLong());
+        
+        manager.read(in);
+    }
+    
     /**
      * Here lies the logic to start a new game
      * 
@@ -157,22 +528,59 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         getResources().stopAllSound();
         
         //reset input(s)
-        getKeyboard().reset();
-        getMouse().reset();
+        resetInput();
         
         //seed used to generate random numbers
         final long seed = System.nanoTime();
         
         //create new Random object
-        random = new Random(seed);
+        random = new GameRandom(seed);
         
         System.out.println("Seed = " + seed);
         
+        //finish the replay of the previous game
+        finishRecording();
+        
         //if the manager already exists release resources
         if (manager != null)
             manager.dispose();
         
-        manager = new Manager(this);
+        //the options selected in the menu
+        settings = new Settings(menu);
+        
+        manager = new Manager(this, settings);
+        
+        autosaveTicks = 0;
+        
+        //continue the game that was interrupted if it was started with the options selected in the menu
+        if (Shared.AUTOSAVE && new File(Shared.AUTOSAVE_FILE).exists())
+        {
+            try
+            {
+                if (hasSelections(new File(Shared.AUTOSAVE_FILE), settings))
+                {
+                    load(new File(Shared.AUTOSAVE_FILE));
+                    return;
+                }
+            }
+            catch (Exception e)
+            {
+                //the save can't be used so remove it and start a new game
+                e.printStackTrace();
+                
+                if (!new File(Shared.AUTOSAVE_FILE).delete())
+                    System.out.println("Autosave could not be removed");
+                
+                settings = new Settings(menu);
+                
+                manager.dispose();
+                manager = new Manager(this, settings);
+            }
+        }
+        
+        //record the input so the game can be played again
+        if (Shared.RECORD_REPLAY)
+            recorder = new ReplayRecorder(new FileOutputStream("replay-" + seed + ".bin"), settings, seed, Shared.REPLAY_KEYFRAME_TICKS);
     }
     
     /**
@@ -188,17 +596,23 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         if (font == null)
             font = graphics.getFont();
         
-        //if the resources are still loading
-        if (resources.isLoading())
+        //the loading screen and menu are live objects so they can't be drawn during an update
+        synchronized (this)
         {
-            //draw loading screen
-            resources.render(graphics, main.getScreen());
+            //if the resources are still loading
+            if (resources.isLoading())
+            {
+                //draw loading screen
+                resources.render(graphics, main.getScreen());
+                return;
+            }
         }
-        else
+        
+        //draw application elements, the manager draws from a snapshot so no lock is needed
+        renderElements((Graphics2D)graphics);
+        
+        synchronized (this)
         {
-            //draw application elements
-            renderElements((Graphics2D)graphics);
-            
             //draw menu on top of the game if visible
             renderMenu(graphics);
         }
@@ -211,12 +625,16 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
      */
     private void renderElements(Graphics2D graphics) throws Exception
     {
+        //the manager may be replaced by the update thread
+        final Manager tmp = manager;
+        
         //NOTE: DRAW MAIN GAME HERE
-        if (manager != null)
+        if (tmp != null)
         {
             graphics.setFont(resources.getGameFont(GameFont.Keys.Game).deriveFont(18f));
             
-            manager.render(graphics);
+            //draw in between the last 2 updates if enabled, otherwise at the last update
+            tmp.render(graphics, (Shared.INTERPOLATION) ? main.getUpdateFraction() : 1);
         }
     }
     
@@ -264,6 +682,15 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         return this.manager;
     }
     
+    /**
+     * Get the options the current game was created with
+     * @return The settings
+     */
+    public Settings getSettings()
+    {
+        return this.settings;
+    }
+    
     public CustomMenu getMenu()
     {
         return this.menu;
@@ -277,61 +704,61 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
     @Override
     public void keyReleased(KeyEvent e)
     {
-        keyboard.addKeyReleased(e.getKeyCode());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void keyPressed(KeyEvent e)
     {
-        keyboard.addKeyPressed(e.getKeyCode());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void keyTyped(KeyEvent e)
     {
-        keyboard.addKeyTyped(e.getKeyChar());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseClicked(MouseEvent e)
     {
-        mouse.setMouseClicked(e);
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mousePressed(MouseEvent e)
     {
-        mouse.setMousePressed(e);
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseReleased(MouseEvent e)
     {
-        mouse.setMouseReleased(e);
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseEntered(MouseEvent e)
     {
-        mouse.setMouseEntered(e.getPoint());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseExited(MouseEvent e)
     {
-        mouse.setMouseExited(e.getPoint());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseMoved(MouseEvent e)
     {
-        mouse.setMouseMoved(e.getPoint());
+        inputBuffer.offer(e);
     }
     
     @Override
     public void mouseDragged(MouseEvent e)
     {
-        mouse.setMouseDragged(e.getPoint());
+        inputBuffer.offer(e);
     }
     
     public Mouse getMouse()
@@ -0,0 +1,64 @@
+package com.gamesbykevin.asteroids.engine;
+
+import java.util.Random;
+
+/**
+ * Random with the same sequence as java.util.Random, but the internal state can be read and restored.<br>
+ * This lets a saved game continue with the same random decisions it would have made.
+ * @author GOD
+ */
+public final class GameRandom extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    //the constants of the linear congruential generator used by java.util.Random
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    //the current state, not initialized here because the parent constructor sets it through setSeed()
+    private long state;
+
+    /**
+     * Create a new random number generator
+     * @param seed The initial seed
+     */
+    public GameRandom(final long seed)
+    {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(final long seed)
+    {
+        super.setSeed(seed);
+
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(final int bits)
+    {
+        state = ((state * MULTIPLIER) + ADDEND) & MASK;
+
+        return (int)(state >>> (48 - bits));
+    }
+
+    /**
+     * Get the internal state
+     * @return The 48 bit state
+     */
+    public long getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * Restore the internal state returned by getState()
+     * @param state The 48 bit state
+     */
+    public void setState(final long state)
+    {
+        this.state = state & MASK;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.gamesbykevin.asteroids.input;
+
+import java.awt.event.InputEvent;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring buffer passing input events from the AWT event thread to the game thread.<br>
+ * Only one thread may call offer() and only one other thread may call poll().
+ * @author GOD
+ */
+public final class InputBuffer
+{
+    //the number of events the buffer can hold, needs to be a power of 2
+    private static final int CAPACITY = 1024;
+
+    //used to wrap a position into an index
+    private static final int MASK = CAPACITY - 1;
+
+    //the events waiting to be read
+    private final InputEvent[] events = new InputEvent[CAPACITY];
+
+    //the position of the next event to write, only changed by the producer
+    private final AtomicLong head = new AtomicLong();
+
+    //the position of the next event to read, only changed by the consumer
+    private final AtomicLong tail = new AtomicLong();
+
+    //how many events were dropped because the buffer was full
+    private volatile long dropped = 0;
+
+    /**
+     * Add the event to the buffer, called from the AWT event thread
+     * @param event The input event
+     * @return true if the event was added, false if the buffer is full and the event was dropped
+     */
+    public boolean offer(final InputEvent event)
+    {
+        final long position = head.get();
+
+        //the consumer has not caught up yet
+        if (position - tail.get() == CAPACITY)
+        {
+            dropped++;
+            return false;
+        }
+
+        events[(int)position & MASK] = event;
+
+        //publish the event, the consumer reads head before the event
+        head.lazySet(position + 1);
+
+        return true;
+    }
+
+    /**
+     * Get the next event in the buffer, called from the game thread
+     * @return The oldest event, null if the buffer is empty
+     */
+    public InputEvent poll()
+    {
+        final long position = tail.get();
+
+        if (position == head.get())
+            return null;
+
+        final int index = (int)position & MASK;
+        final InputEvent event = events[index];
+
+        //release the reference so the event can be garbage collected
+        events[index] = null;
+
+        //give the slot back to the producer
+        tail.lazySet(position + 1);
+
+        return event;
+    }
+
+    /**
+     * Get the number of events dropped because the buffer was full
+     * @return The count of dropped events
+     */
+    public long getDropped()
+    {
+        return this.dropped;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.gamesbykevin.asteroids.input;
+
+/**
+ * The state of the keyboard for a single update.<br>
+ * Each key code below 64 is stored as one bit, this covers the arrow keys, space, escape and the number keys.
+ * @author GOD
+ */
+public final class InputSnapshot
+{
+    //the number of key codes that can be tracked
+    public static final int KEY_LIMIT = 64;
+
+    //snapshot with no keys down
+    public static final InputSnapshot NONE = new InputSnapshot(0, 0);
+
+    //the keys held down at the start of the update
+    private final long keysDown;
+
+    //the keys that were pressed since the previous update
+    private final long keysPressed;
+
+    /**
+     * Create a new snapshot
+     * @param keysDown Bit mask of the keys held down
+     * @param keysPressed Bit mask of the keys pressed since the previous update
+     */
+    public InputSnapshot(final long keysDown, final long keysPressed)
+    {
+        this.keysDown = keysDown;
+        this.keysPressed = keysPressed;
+    }
+
+    /**
+     * Get the bit for the key code
+     * @param keyCode The key code from KeyEvent
+     * @return The bit mask for the key, 0 if the key can't be tracked
+     */
+    public static long getBit(final int keyCode)
+    {
+        return (keyCode >= 0 && keyCode < KEY_LIMIT) ? (1L << keyCode) : 0;
+    }
+
+    /**
+     * Is the key held down
+     * @param keyCode The key code from KeyEvent
+     * @return true if the key is down, false otherwise
+     */
+    public boolean hasKeyDown(final int keyCode)
+    {
+        return ((keysDown & getBit(keyCode)) != 0);
+    }
+
+    /**
+     * Was the key pressed since the previous update, this is true even if it was released again
+     * @param keyCode The key code from KeyEvent
+     * @return true if the key was pressed, false otherwise
+     */
+    public boolean hasKeyPressed(final int keyCode)
+    {
+        return ((keysPressed & getBit(keyCode)) != 0);
+    }
+
+    public long getKeysDown()
+    {
+        return this.keysDown;
+    }
+
+    public long getKeysPressed()
+    {
+        return this.keysPressed;
+    }
+}
\ No newline at end of file
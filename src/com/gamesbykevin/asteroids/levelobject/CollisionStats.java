@@ -0,0 +1,79 @@
+package com.gamesbykevin.asteroids.levelobject;
+
+import com.gamesbykevin.asteroids.shared.Shared;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how many collision tests are rejected by each stage of the narrow-phase.<br>
+ * The cheap bounding circle test runs first, then the bounding box and finally the polygon test.
+ * @author GOD
+ */
+public final class CollisionStats
+{
+    //only count when stress testing, every game shares the counters so counting would slow down games running in parallel
+    //the counters are atomic because the meteors can be updated on several threads
+    private static final boolean ENABLED = (Shared.STRESS_METEORS > 0);
+
+    //the total number of object vs object tests
+    private static final AtomicLong tests = new AtomicLong();
+
+    //tests rejected by each stage
+    private static final AtomicLong circleRejects = new AtomicLong();
+    private static final AtomicLong boxRejects = new AtomicLong();
+    private static final AtomicLong polygonRejects = new AtomicLong();
+
+    private CollisionStats()
+    {
+        //no instances needed
+    }
+
+    protected static void addTest()
+    {
+        if (ENABLED)
+            tests.incrementAndGet();
+    }
+
+    protected static void addCircleReject()
+    {
+        if (ENABLED)
+            circleRejects.incrementAndGet();
+    }
+
+    protected static void addBoxReject()
+    {
+        if (ENABLED)
+            boxRejects.incrementAndGet();
+    }
+
+    protected static void addPolygonReject()
+    {
+        if (ENABLED)
+            polygonRejects.incrementAndGet();
+    }
+
+    /**
+     * Set all counters back to 0
+     */
+    public static void reset()
+    {
+        tests.set(0);
+        circleRejects.set(0);
+        boxRejects.set(0);
+        polygonRejects.set(0);
+    }
+
+    /**
+     * Get a description of the counters
+     * @return The number of tests and the rejections for each stage
+     */
+    public static String getDescription()
+    {
+        final long total = tests.get();
+        final long circle = circleRejects.get();
+        final long box = boxRejects.get();
+        final long polygon = polygonRejects.get();
+
+        return "Tests = " + total + ", circle rejects = " + circle + ", box rejects = " + box + ", polygon rejects = " + polygon + ", hits = " + (total - circle - box - polygon);
+    }
+}
\ No newline at end of file
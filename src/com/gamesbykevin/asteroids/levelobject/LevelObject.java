@@ -3,11 +3,15 @@ package com.gamesbykevin.asteroids.levelobject;
 import com.gamesbykevin.framework.base.Sprite;
 
 import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.shared.Shared;
 
 import java.awt.Graphics;
 import java.awt.Polygon;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,27 +21,46 @@ public abstract class LevelObject extends Sprite
     private double angle = 0;
     
     //the size of the object
-    private final int size;
+    private int size;
     
-    //store the original coordinates
-    private List<int[]> xpoints;
-    private List<int[]> ypoints;
+    //the shared original coordinates for each polygon
+    private List<Shape> shapes;
     
     //the polygon(s) that make up the object, store the new coordinates where the object will be drawn
     private List<Polygon> boundary;
     
+    //the edge normals of each polygon rotated to the current angle
+    private List<double[]> normalsX;
+    private List<double[]> normalsY;
+    
     //is this object dead
     private boolean dead = false;
     
+    //the sine and cosine of the current angle
+    private final Rotation rotation;
+    
+    //the radius of a circle around the center containing every polygon
+    private double radius = 0;
+    
+    //the box containing every polygon at the current location
+    private int minX, minY, maxX, maxY;
+    
+    //the location and angle before the current update, used to draw in between updates
+    private double previousX, previousY, previousAngle;
+    
     public LevelObject(final int size)
     {
         //set the size of the object
         this.size = size;
         
         //create the lists that will contain the boundary and original coordinates
-        this.xpoints = new ArrayList<>();
-        this.ypoints = new ArrayList<>();
+        this.shapes = new ArrayList<>();
         this.boundary = new ArrayList<>();
+        this.normalsX = new ArrayList<>();
+        this.normalsY = new ArrayList<>();
+        
+        //create the object that calculates our rotation
+        this.rotation = new Rotation();
     }
     
     /**
@@ -88,36 +111,139 @@ public abstract class LevelObject extends Sprite
         this.angle = angle;
     }
     
+    /**
+     * Remember the current location and angle as where the object was before the next update
+     */
+    public void storePrevious()
+    {
+        this.previousX = getX();
+        this.previousY = getY();
+        this.previousAngle = getAngle();
+    }
+    
+    /**
+     * Forget where the object was so it will not be drawn moving from there.<br>
+     * This should be called whenever the object is placed somewhere instead of moving there.
+     */
+    public void resetPrevious()
+    {
+        storePrevious();
+    }
+    
+    public double getPreviousX()
+    {
+        return this.previousX;
+    }
+    
+    public double getPreviousY()
+    {
+        return this.previousY;
+    }
+    
+    public double getPreviousAngle()
+    {
+        return this.previousAngle;
+    }
+    
+    /**
+     * Place the object at the location instead of moving it there.<br>
+     * The polygons are updated for the new location and the object will not be drawn moving from the previous location.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void place(final double x, final double y)
+    {
+        setLocation(x, y);
+        updateBoundary();
+        resetPrevious();
+    }
+    
+    /**
+     * Write the location, speed, angle, size and death of the object
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    public void write(final DataOutput out) throws IOException
+    {
+        out.writeDouble(getX());
+        out.writeDouble(getY());
+        out.writeDouble(getVelocityX());
+        out.writeDouble(getVelocityY());
+        out.writeDouble(getAngle());
+        out.writeInt(getSize());
+        out.writeBoolean(isDead());
+    }
+    
+    /**
+     * Read the state written by write(), the polygons are updated for the restored location
+     * @param in Where the state is read from
+     * @throws IOException 
+     */
+    public void read(final DataInput in) throws IOException
+    {
+        setX(in.readDouble());
+        setY(in.readDouble());
+        setVelocityX(in.readDouble());
+        setVelocityY(in.readDouble());
+        setAngle(in.readDouble());
+        setSize(in.readInt());
+        this.dead = in.readBoolean();
+        
+        updateBoundary();
+        resetPrevious();
+    }
+    
     /**
      * Add polygon to level object
-     * @param p Polygon object we want to add
+     * @param shape The shared original coordinates of the polygon we want to add
      */
-    protected void add(final int[] xpoints, final int[] ypoints)
+    protected void add(final Shape shape)
     {
         //add our original coordinates
-        this.xpoints.add(xpoints);
-        this.ypoints.add(ypoints);
+        this.shapes.add(shape);
+        
+        //create our new default polygon, the points will be set when the coordinates are updated
+        boundary.add(new Polygon(new int[shape.getCount()], new int[shape.getCount()], shape.getCount()));
         
-        //create our new default polygon
-        boundary.add(new Polygon(xpoints, ypoints, xpoints.length));
+        //create the rotated normals, these will also be set when the coordinates are updated
+        normalsX.add(new double[shape.getNormalCount()]);
+        normalsY.add(new double[shape.getNormalCount()]);
         
         //call this here so the intial coordinates are set
         updateCoordinates(null);
     }
     
+    /**
+     * Replace an existing polygon with a different shape having the same number of points and normals
+     * @param index The index of the polygon to replace
+     * @param shape The shared original coordinates of the new polygon
+     */
+    protected void set(final int index, final Shape shape)
+    {
+        if (shape.getCount() != shapes.get(index).getCount())
+            throw new IllegalArgumentException("The shape needs to have " + shapes.get(index).getCount() + " points");
+        if (shape.getNormalCount() != shapes.get(index).getNormalCount())
+            throw new IllegalArgumentException("The shape needs to have " + shapes.get(index).getNormalCount() + " normals");
+        
+        this.shapes.set(index, shape);
+    }
+    
     @Override
     public void dispose()
     {
         super.dispose();
         
-        xpoints.clear();
-        xpoints = null;
-        
-        ypoints.clear();
-        ypoints = null;
+        shapes.clear();
+        shapes = null;
         
         boundary.clear();
         boundary = null;
+        
+        normalsX.clear();
+        normalsX = null;
+        
+        normalsY.clear();
+        normalsY = null;
     }
     
     /**
@@ -129,6 +255,15 @@ public abstract class LevelObject extends Sprite
         return this.size;
     }
     
+    /**
+     * Set the size of the object
+     * @param size The size in pixels
+     */
+    protected void setSize(final int size)
+    {
+        this.size = size;
+    }
+    
     /**
      * This method will perform 3 tasks<br>
      * 1. Update the location based on the velocity set.<br>
@@ -150,32 +285,243 @@ public abstract class LevelObject extends Sprite
         if (getAngle() < 0)
             setAngle(getAngle() + (2 * Math.PI));
         
+        updateBoundary();
+    }
+    
+    /**
+     * Calculate the polygons and bounds at the current location and angle.<br>
+     * The edge normals are only needed by the separating axis test, so they are only rotated when it is enabled.
+     */
+    private void updateBoundary()
+    {
+        //the angle is the same for every point so only calculate once
+        rotation.update(getAngle());
+        
+        final double cos = rotation.getCos();
+        final double sin = rotation.getSin();
+        
+        //start the bounds over, the truncated points may be 1 pixel away from the exact location
+        radius = 0;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+        
         //rotate every polygon
         for (int index=0; index < boundary.size(); index++)
         {
+            radius = Math.max(radius, shapes.get(index).getRadius() + 1);
+            
             //calculate every point in the polygon
+            setCoordinates(boundary.get(index), shapes.get(index), getX(), getY(), cos, sin);
+            
             for (int i=0; i < boundary.get(index).xpoints.length; i++)
             {
-                final int tmpX = xpoints.get(index)[i];
-                final int tmpY = ypoints.get(index)[i];
-                
-                //take original (x,y) and determine new (x,y) based on the current angle
-                final double newX = (tmpX * Math.cos(getAngle())) - (tmpY * Math.sin(getAngle()));
-                final double newY = (tmpX * Math.sin(getAngle())) + (tmpY * Math.cos(getAngle()));
+                minX = Math.min(minX, boundary.get(index).xpoints[i]);
+                minY = Math.min(minY, boundary.get(index).ypoints[i]);
+                maxX = Math.max(maxX, boundary.get(index).xpoints[i]);
+                maxY = Math.max(maxY, boundary.get(index).ypoints[i]);
+            }
+        }
+        
+        if (Shared.COLLISION_SEPARATING_AXIS)
+            updateNormals();
+    }
+    
+    /**
+     * Rotate the edge normals of every polygon to the angle of the last boundary update.<br>
+     * This is done by updateBoundary() when the separating axis test is enabled in Shared,
+     * otherwise it has to be called before hasPolygonCollision() is used with the separating axis test.
+     */
+    public void updateNormals()
+    {
+        final double cos = rotation.getCos();
+        final double sin = rotation.getSin();
+        
+        for (int index=0; index < shapes.size(); index++)
+        {
+            for (int i=0; i < shapes.get(index).getNormalCount(); i++)
+            {
+                //rotate the edge normal the same way as the points
+                final double normalX = shapes.get(index).getNormalX(i);
+                final double normalY = shapes.get(index).getNormalY(i);
                 
-                boundary.get(index).xpoints[i] = (int)(getX() + newX);
-                boundary.get(index).ypoints[i] = (int)(getY() + newY);
+                normalsX.get(index)[i] = (normalX * cos) - (normalY * sin);
+                normalsY.get(index)[i] = (normalX * sin) + (normalY * cos);
+            }
+        }
+    }
+    
+    /**
+     * Set the points of the polygon to the shape rotated and moved to the location
+     * @param polygon The polygon to update, needs to have the same number of points as the shape
+     * @param shape The original coordinates
+     * @param x x-coordinate of the center
+     * @param y y-coordinate of the center
+     * @param cos Cosine of the angle
+     * @param sin Sine of the angle
+     */
+    public static void setCoordinates(final Polygon polygon, final Shape shape, final double x, final double y, final double cos, final double sin)
+    {
+        for (int i=0; i < shape.getCount(); i++)
+        {
+            final int tmpX = shape.getX(i);
+            final int tmpY = shape.getY(i);
+            
+            //take original (x,y) and determine new (x,y) based on the current angle
+            final double newX = (tmpX * cos) - (tmpY * sin);
+            final double newY = (tmpX * sin) + (tmpY * cos);
+            
+            polygon.xpoints[i] = (int)(x + newX);
+            polygon.ypoints[i] = (int)(y + newY);
+        }
+    }
+    
+    /**
+     * Get the radius of a circle around our center containing every polygon
+     * @return The radius in pixels
+     */
+    public double getRadius()
+    {
+        return this.radius;
+    }
+    
+    /**
+     * Check if the objects are close enough that their polygons may collide.<br>
+     * 1. If the bounding circles don't overlap there is no collision.<br>
+     * 2. If the bounding boxes don't overlap there is no collision.<br>
+     * @param object The object we are checking
+     * @return true if the polygons need to be checked, false if there can't be a collision
+     */
+    protected boolean isNear(final LevelObject object)
+    {
+        CollisionStats.addTest();
+        
+        final double dx = getX() - object.getX();
+        final double dy = getY() - object.getY();
+        final double distance = getRadius() + object.getRadius();
+        
+        //compare the squared distance so we don't need the square root
+        if ((dx * dx) + (dy * dy) > distance * distance)
+        {
+            CollisionStats.addCircleReject();
+            return false;
+        }
+        
+        if (maxX < object.minX || minX > object.maxX || maxY < object.minY || minY > object.maxY)
+        {
+            CollisionStats.addBoxReject();
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Do the polygons collide?<br>
+     * If enabled in Shared the separating axis test is used, otherwise the point containment test.
+     * @param index The index of our polygon
+     * @param object The object we are checking
+     * @param objectIndex The index of the polygon in the object we are checking
+     * @return true if the polygons intersect each other
+     */
+    protected boolean hasCollision(final int index, final LevelObject object, final int objectIndex)
+    {
+        return hasCollision(index, object, objectIndex, Shared.COLLISION_SEPARATING_AXIS);
+    }
+    
+    /**
+     * Do the polygons collide using the specified test?
+     * @param index The index of our polygon
+     * @param object The object we are checking
+     * @param objectIndex The index of the polygon in the object we are checking
+     * @param separatingAxis true for the separating axis test, false for the point containment test
+     * @return true if the polygons intersect each other
+     */
+    private boolean hasCollision(final int index, final LevelObject object, final int objectIndex, final boolean separatingAxis)
+    {
+        if (separatingAxis)
+        {
+            final Polygon p1 = boundary.get(index);
+            final Polygon p2 = object.boundary.get(objectIndex);
+            
+            //if the polygons don't overlap on any edge normal there is a gap between them
+            return (!hasSeparatingAxis(normalsX.get(index), normalsY.get(index), p1, p2) && 
+                    !hasSeparatingAxis(object.normalsX.get(objectIndex), object.normalsY.get(objectIndex), p1, p2));
+        }
+        else
+        {
+            return hasCollision(boundary.get(index), object.boundary.get(objectIndex));
+        }
+    }
+    
+    /**
+     * Does our polygon intersect the polygon of the object?<br>
+     * The bounding circle and box are checked first, every stage that rejects the test is counted.
+     * @param index The index of our polygon
+     * @param object The object we are checking
+     * @param objectIndex The index of the polygon in the object we are checking
+     * @return true if the polygons intersect each other
+     */
+    protected boolean hasBoundaryCollision(final int index, final LevelObject object, final int objectIndex)
+    {
+        //don't check the polygons if the objects are too far apart
+        if (!isNear(object))
+            return false;
+        
+        if (hasCollision(index, object, objectIndex))
+            return true;
+        
+        //no collision was made
+        CollisionStats.addPolygonReject();
+        return false;
+    }
+    
+    /**
+     * Check if any of the normals separate the polygons.<br>
+     * Both polygons are projected onto each normal, if the projections don't overlap the polygons don't intersect.
+     * The normals come from the convex hull of each shape, so concave polygons are treated as their convex hull.
+     * @param normalsX x values of the normals to check
+     * @param normalsY y values of the normals to check
+     * @param p1 polygon
+     * @param p2 polygon
+     * @return true if a normal was found that separates the polygons, false otherwise
+     */
+    private static boolean hasSeparatingAxis(final double[] normalsX, final double[] normalsY, final Polygon p1, final Polygon p2)
+    {
+        for (int n=0; n < normalsX.length; n++)
+        {
+            double min1 = Double.MAX_VALUE, max1 = -Double.MAX_VALUE;
+            double min2 = Double.MAX_VALUE, max2 = -Double.MAX_VALUE;
+            
+            for (int i=0; i < p1.npoints; i++)
+            {
+                final double projection = (p1.xpoints[i] * normalsX[n]) + (p1.ypoints[i] * normalsY[n]);
+                min1 = Math.min(min1, projection);
+                max1 = Math.max(max1, projection);
             }
+            
+            for (int i=0; i < p2.npoints; i++)
+            {
+                final double projection = (p2.xpoints[i] * normalsX[n]) + (p2.ypoints[i] * normalsY[n]);
+                min2 = Math.min(min2, projection);
+                max2 = Math.max(max2, projection);
+            }
+            
+            if (max1 < min2 || max2 < min1)
+                return true;
         }
+        
+        return false;
     }
     
     /**
-     * Do the polygons collide?
+     * Do the polygons collide, checking if any point of one polygon is inside the other?
      * @param p1 polygon
      * @param p2 polygon
      * @return true if p1 and p2 intersect each other
      */
-    protected boolean hasCollision(final Polygon p1, final Polygon p2)
+    private boolean hasCollision(final Polygon p1, final Polygon p2)
     {
         for (int i=0; i < p2.xpoints.length; i++)
         {
@@ -224,16 +570,43 @@ public abstract class LevelObject extends Sprite
      */
     public boolean hasCollision(final LevelObject object)
     {
-        for (Polygon p1 : getBoundaries())
+        //don't check the polygons if the objects are too far apart
+        if (!isNear(object))
+            return false;
+        
+        for (int index=0; index < getBoundaries().size(); index++)
         {
-            for (Polygon p2 : object.getBoundaries())
+            for (int objectIndex=0; objectIndex < object.getBoundaries().size(); objectIndex++)
             {
-                if (hasCollision(p1, p2))
+                if (hasCollision(index, object, objectIndex))
                     return true;
             }
         }
 
         //no collision was made
+        CollisionStats.addPolygonReject();
+        return false;
+    }
+    
+    /**
+     * Do any of our polygons intersect the polygons of the object using the specified test?<br>
+     * The bounding circle and box are not checked and nothing is counted, so the polygon tests can be compared.
+     * If the separating axis test is not enabled in Shared, updateNormals() has to be called on both objects first.
+     * @param object The object we want to check for collision
+     * @param separatingAxis true for the separating axis test, false for the point containment test
+     * @return true if collision has been detected, false otherwise
+     */
+    public boolean hasPolygonCollision(final LevelObject object, final boolean separatingAxis)
+    {
+        for (int index=0; index < getBoundaries().size(); index++)
+        {
+            for (int objectIndex=0; objectIndex < object.getBoundaries().size(); objectIndex++)
+            {
+                if (hasCollision(index, object, objectIndex, separatingAxis))
+                    return true;
+            }
+        }
+        
         return false;
     }
     
@@ -250,6 +623,8 @@ public abstract class LevelObject extends Sprite
         if (screen == null)
             return;
         
+        final double x = getX(), y = getY();
+        
         //check if we are out of bounds
         if (getX() - getSize() < screen.x && getVelocityX() < 0)
             setX(screen.x + screen.width);
@@ -259,6 +634,10 @@ public abstract class LevelObject extends Sprite
             setY(screen.y + screen.height);
         if (getY() + getSize() > screen.y + screen.height && getVelocityY() > 0)
             setY(screen.y);
+        
+        //if we wrapped around the screen don't draw the object moving across it
+        if (x != getX() || y != getY())
+            resetPrevious();
     }
     
     /**
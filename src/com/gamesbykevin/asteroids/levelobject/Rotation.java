@@ -0,0 +1,64 @@
+package com.gamesbykevin.asteroids.levelobject;
+
+import com.gamesbykevin.asteroids.shared.Shared;
+
+/**
+ * Stores the sine and cosine of a level object's angle so they are only calculated once per update.<br>
+ * If the lookup table is enabled in Shared the values are read from a pre-computed table instead.
+ * @author GOD
+ */
+public final class Rotation
+{
+    //the number of angles in the lookup table, needs to be a power of 2
+    private static final int TABLE_SIZE = 4096;
+
+    //convert an angle in radians into a table index
+    private static final double RADIANS_TO_INDEX = TABLE_SIZE / (2 * Math.PI);
+
+    //pre-computed values for every angle in the table
+    private static final double[] SIN_TABLE = new double[TABLE_SIZE];
+    private static final double[] COS_TABLE = new double[TABLE_SIZE];
+
+    static
+    {
+        for (int i=0; i < TABLE_SIZE; i++)
+        {
+            SIN_TABLE[i] = Math.sin(i / RADIANS_TO_INDEX);
+            COS_TABLE[i] = Math.cos(i / RADIANS_TO_INDEX);
+        }
+    }
+
+    //the cached values for the current angle
+    private double sin = 0, cos = 1;
+
+    /**
+     * Calculate the sine and cosine for the angle
+     * @param angle The angle in radians
+     */
+    public void update(final double angle)
+    {
+        if (Shared.ROTATION_LOOKUP_TABLE)
+        {
+            //round to the closest angle in the table, the mask keeps negative angles in range
+            final int index = (int)Math.round(angle * RADIANS_TO_INDEX) & (TABLE_SIZE - 1);
+
+            this.sin = SIN_TABLE[index];
+            this.cos = COS_TABLE[index];
+        }
+        else
+        {
+            this.sin = Math.sin(angle);
+            this.cos = Math.cos(angle);
+        }
+    }
+
+    public double getSin()
+    {
+        return this.sin;
+    }
+
+    public double getCos()
+    {
+        return this.cos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.gamesbykevin.asteroids.levelobject;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The original (un-rotated) coordinates of a polygon relative to the center of a level object.<br>
+ * Shapes are immutable and shared, every object of the same type and size will reference the same Shape.
+ * @author GOD
+ */
+public final class Shape
+{
+    /**
+     * The different shapes that make up our level objects
+     */
+    public enum Type
+    {
+        Meteor, Bullet, ShipBody, ShipThrust
+    }
+
+    //every shape created so far by type and size, games running on different threads share these
+    private static final Map<Type, ConcurrentMap<Integer, Shape>> SHAPES = new EnumMap<>(Type.class);
+
+    static
+    {
+        //the type maps never change so only the size maps need to handle several threads
+        for (Type type : Type.values())
+        {
+            SHAPES.put(type, new ConcurrentHashMap<Integer, Shape>());
+        }
+    }
+
+    //the type of shape
+    private final Type type;
+
+    //the size the coordinates were created for
+    private final int size;
+
+    //the original coordinates
+    private final int[] xpoints;
+    private final int[] ypoints;
+
+    //the distance from the center to the furthest point
+    private final double radius;
+
+    //the normal of each edge of the convex hull, so concave shapes are tested as their hull
+    private final double[] normalsX;
+    private final double[] normalsY;
+
+    private Shape(final Type type, final int size, final int[] xpoints, final int[] ypoints)
+    {
+        this.type = type;
+        this.size = size;
+        this.xpoints = xpoints;
+        this.ypoints = ypoints;
+
+        double max = 0;
+
+        for (int i=0; i < xpoints.length; i++)
+        {
+            max = Math.max(max, Math.sqrt((xpoints[i] * xpoints[i]) + (ypoints[i] * ypoints[i])));
+        }
+
+        this.radius = max;
+
+        final int[] hull = getHull(xpoints, ypoints);
+
+        this.normalsX = new double[hull.length];
+        this.normalsY = new double[hull.length];
+
+        for (int i=0; i < hull.length; i++)
+        {
+            final int current = hull[i];
+            final int next = hull[(i + 1) % hull.length];
+
+            //the edge rotated 90 degrees, the length does not matter for projection tests
+            this.normalsX[i] = -(ypoints[next] - ypoints[current]);
+            this.normalsY[i] = (xpoints[next] - xpoints[current]);
+        }
+    }
+
+    /**
+     * Find the points on the convex hull by wrapping around the outside of the points.<br>
+     * For a convex shape every point is on the hull, for a concave shape the points inside the hull are skipped.
+     * @param xpoints The x-coordinates
+     * @param ypoints The y-coordinates
+     * @return The index of each point on the hull, in order around the hull
+     */
+    private static int[] getHull(final int[] xpoints, final int[] ypoints)
+    {
+        //the left most point is always on the hull
+        int start = 0;
+
+        for (int i=1; i < xpoints.length; i++)
+        {
+            if (xpoints[i] < xpoints[start] || (xpoints[i] == xpoints[start] && ypoints[i] < ypoints[start]))
+                start = i;
+        }
+
+        final int[] hull = new int[xpoints.length];
+        int count = 0;
+        int current = start;
+
+        do
+        {
+            hull[count++] = current;
+
+            //the next point on the hull has no points on its right side, if points are in line use the furthest
+            int next = (current + 1) % xpoints.length;
+
+            for (int i=0; i < xpoints.length; i++)
+            {
+                final long cross = ((long)(xpoints[next] - xpoints[current]) * (ypoints[i] - ypoints[current])) - 
+                                   ((long)(ypoints[next] - ypoints[current]) * (xpoints[i] - xpoints[current]));
+
+                if (cross < 0 || (cross == 0 && getDistance(xpoints, ypoints, current, i) > getDistance(xpoints, ypoints, current, next)))
+                    next = i;
+            }
+
+            current = next;
+        }
+        while (current != start && count < xpoints.length);
+
+        return Arrays.copyOf(hull, count);
+    }
+
+    /**
+     * Get the squared distance between 2 points
+     * @param xpoints The x-coordinates
+     * @param ypoints The y-coordinates
+     * @param i The index of the first point
+     * @param j The index of the second point
+     * @return The distance squared
+     */
+    private static long getDistance(final int[] xpoints, final int[] ypoints, final int i, final int j)
+    {
+        final long dx = xpoints[j] - xpoints[i];
+        final long dy = ypoints[j] - ypoints[i];
+
+        return (dx * dx) + (dy * dy);
+    }
+
+    /**
+     * Get the shared shape for the type and size, the shape will be created the first time it is requested
+     * @param type The type of shape
+     * @param size The size of the object
+     * @return The Shape
+     */
+    public static Shape get(final Type type, final int size)
+    {
+        final ConcurrentMap<Integer, Shape> sizes = SHAPES.get(type);
+
+        final Shape shape = sizes.get(size);
+
+        if (shape != null)
+            return shape;
+
+        //if another thread created the same shape first use theirs
+        final Shape created = create(type, size);
+        final Shape existing = sizes.putIfAbsent(size, created);
+
+        return (existing != null) ? existing : created;
+    }
+
+    /**
+     * Create the coordinates for the type and size
+     * @param type The type of shape
+     * @param size The size of the object
+     * @return A new Shape
+     */
+    private static Shape create(final Type type, final int size)
+    {
+        switch (type)
+        {
+            case Meteor:
+                return new Shape(type, size,
+                    new int[]{-size, 0, size, size, 0, -size},
+                    new int[]{-size, (int)(-size * 1.5), -size, size, (int)(size * 1.5), size});
+
+            case Bullet:
+                return new Shape(type, size,
+                    new int[]{-size, size, size, -size},
+                    new int[]{-size, -size, size, size});
+
+            //facing east by default
+            case ShipBody:
+                return new Shape(type, size,
+                    new int[]{size, -(size/2), 0, -(size/2)},
+                    new int[]{0, -(size/2), 0, (size/2)});
+
+            //facing east by default
+            case ShipThrust:
+                return new Shape(type, size,
+                    new int[]{-size, 0, 0},
+                    new int[]{0, -(size/4), (size/4)});
+
+            default:
+                throw new IllegalArgumentException("Shape type needs to be setup here: " + type);
+        }
+    }
+
+    public Type getType()
+    {
+        return this.type;
+    }
+
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get the radius of a circle around the center containing every point, no matter the rotation
+     * @return The distance to the furthest point
+     */
+    public double getRadius()
+    {
+        return this.radius;
+    }
+
+    /**
+     * Get the number of points in the shape
+     * @return The number of points
+     */
+    public int getCount()
+    {
+        return this.xpoints.length;
+    }
+
+    public int getX(final int index)
+    {
+        return this.xpoints[index];
+    }
+
+    public int getY(final int index)
+    {
+        return this.ypoints[index];
+    }
+
+    /**
+     * Get the number of edge normals, this is the number of edges on the convex hull
+     * @return The number of normals
+     */
+    public int getNormalCount()
+    {
+        return this.normalsX.length;
+    }
+
+    public double getNormalX(final int index)
+    {
+        return this.normalsX[index];
+    }
+
+    public double getNormalY(final int index)
+    {
+        return this.normalsY[index];
+    }
+}
\ No newline at end of file
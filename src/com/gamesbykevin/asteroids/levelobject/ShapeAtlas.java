@@ -0,0 +1,235 @@
+package com.gamesbykevin.asteroids.levelobject;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A shape drawn ahead of time at a fixed number of angles, all stored in 1 image.<br>
+ * Drawing an object is then a single image copy of the closest angle instead of filling and outlining polygons.
+ * The image is created compatible with the screen so it can be copied by the graphics card when available.
+ * Atlases are shared the same way as shapes, each shape, colors and number of angles is only drawn once.
+ * @author GOD
+ */
+public final class ShapeAtlas
+{
+    //every atlas drawn so far by shape, games running on different threads share these
+    private static final ConcurrentMap<Shape, List<ShapeAtlas>> ATLASES = new ConcurrentHashMap<>();
+
+    //the colors the shape was drawn with
+    private final Color fill, outline;
+
+    //the number of angles drawn
+    private final int angles;
+
+    //convert an angle in radians into a frame
+    private final double radiansToFrame;
+
+    //the width/height of each frame, the center of the shape is in the middle of the frame
+    private final int frameSize;
+
+    //the number of frames in each row of the image
+    private final int columns;
+
+    //the part of each frame the shape was drawn in, relative to the center of the frame
+    private final int[] left, top, width, height;
+
+    //every frame of the shape
+    private final BufferedImage image;
+
+    /**
+     * Draw the shape at every angle
+     * @param shape The shape to draw
+     * @param fill The color inside the shape, null to not fill the shape
+     * @param outline The color of the edges, null to not draw the edges
+     * @param angles The number of angles to draw, evenly spaced around the circle
+     */
+    private ShapeAtlas(final Shape shape, final Color fill, final Color outline, final int angles)
+    {
+        this.fill = fill;
+        this.outline = outline;
+        this.angles = angles;
+        this.radiansToFrame = angles / (2 * Math.PI);
+
+        //room for the shape at any angle, plus the outline drawn 1 pixel to the right and below the points
+        this.frameSize = (2 * ((int)Math.ceil(shape.getRadius()) + 1)) + 1;
+        this.columns = (int)Math.ceil(Math.sqrt(angles));
+
+        final int rows = (angles + columns - 1) / columns;
+
+        this.left   = new int[angles];
+        this.top    = new int[angles];
+        this.width  = new int[angles];
+        this.height = new int[angles];
+
+        this.image = createImage(columns * frameSize, rows * frameSize);
+
+        final Graphics2D graphics = image.createGraphics();
+
+        try
+        {
+            final Polygon polygon = new Polygon(new int[shape.getCount()], new int[shape.getCount()], shape.getCount());
+
+            for (int frame = 0; frame < angles; frame++)
+            {
+                final double angle = frame / radiansToFrame;
+
+                //the middle of the frame
+                final int x = ((frame % columns) * frameSize) + (frameSize / 2);
+                final int y = ((frame / columns) * frameSize) + (frameSize / 2);
+
+                LevelObject.setCoordinates(polygon, shape, x, y, Math.cos(angle), Math.sin(angle));
+
+                //the points were changed directly so the bounds need to be calculated again
+                polygon.invalidate();
+
+                if (fill != null)
+                {
+                    graphics.setColor(fill);
+                    graphics.fillPolygon(polygon);
+                }
+
+                if (outline != null)
+                {
+                    graphics.setColor(outline);
+                    graphics.drawPolygon(polygon);
+                }
+
+                //only copy the pixels around the shape at this angle, the outline is drawn 1 pixel to the right and below the points
+                final Rectangle bounds = polygon.getBounds();
+
+                left[frame]   = bounds.x - x;
+                top[frame]    = bounds.y - y;
+                width[frame]  = bounds.width + 1;
+                height[frame] = bounds.height + 1;
+            }
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Get the shared atlas for the shape, colors and number of angles, the atlas will be drawn the first time it is requested
+     * @param shape The shape to draw
+     * @param fill The color inside the shape, null to not fill the shape
+     * @param outline The color of the edges, null to not draw the edges
+     * @param angles The number of angles to draw, evenly spaced around the circle
+     * @return The ShapeAtlas
+     */
+    public static ShapeAtlas get(final Shape shape, final Color fill, final Color outline, final int angles)
+    {
+        List<ShapeAtlas> atlases = ATLASES.get(shape);
+
+        if (atlases == null)
+        {
+            //if another thread added the list first use theirs
+            final List<ShapeAtlas> created = new CopyOnWriteArrayList<>();
+            final List<ShapeAtlas> existing = ATLASES.putIfAbsent(shape, created);
+
+            atlases = (existing != null) ? existing : created;
+        }
+
+        ShapeAtlas atlas = find(atlases, fill, outline, angles);
+
+        if (atlas != null)
+            return atlas;
+
+        //drawing the atlas is expensive, so only 1 thread draws it while the others wait
+        synchronized (atlases)
+        {
+            atlas = find(atlases, fill, outline, angles);
+
+            if (atlas == null)
+            {
+                atlas = new ShapeAtlas(shape, fill, outline, angles);
+                atlases.add(atlas);
+            }
+
+            return atlas;
+        }
+    }
+
+    /**
+     * Find the atlas drawn with the colors and number of angles
+     * @param atlases The atlases drawn for 1 shape
+     * @param fill The color inside the shape
+     * @param outline The color of the edges
+     * @param angles The number of angles
+     * @return The matching atlas, null if it has not been drawn yet
+     */
+    private static ShapeAtlas find(final List<ShapeAtlas> atlases, final Color fill, final Color outline, final int angles)
+    {
+        for (int i=0; i < atlases.size(); i++)
+        {
+            final ShapeAtlas atlas = atlases.get(i);
+
+            if (atlas.angles == angles && Objects.equals(atlas.fill, fill) && Objects.equals(atlas.outline, outline))
+                return atlas;
+        }
+
+        return null;
+    }
+
+    /**
+     * Create a transparent image, compatible with the screen if there is one
+     * @param width The width of the image
+     * @param height The height of the image
+     * @return The image with every pixel transparent
+     */
+    private static BufferedImage createImage(final int width, final int height)
+    {
+        //without a screen use a standard image type, java2d has fast copy loops for these but not for custom color models
+        if (GraphicsEnvironment.isHeadless())
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        //the polygons are not anti-aliased so each pixel is either drawn or transparent, 1 bit of alpha can be copied without blending
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage(width, height, Transparency.BITMASK);
+    }
+
+    /**
+     * Get the number of angles drawn
+     * @return The number of frames in the image
+     */
+    public int getAngles()
+    {
+        return this.angles;
+    }
+
+    /**
+     * Draw the frame closest to the angle with the center of the shape at the location
+     * @param graphics Graphics object
+     * @param x x-coordinate of the center
+     * @param y y-coordinate of the center
+     * @param angle The angle in radians
+     */
+    public void draw(final Graphics graphics, final double x, final double y, final double angle)
+    {
+        //round to the closest frame, keeping negative angles in range
+        int frame = (int)Math.round(angle * radiansToFrame) % angles;
+
+        if (frame < 0)
+            frame += angles;
+
+        final int sourceX = ((frame % columns) * frameSize) + (frameSize / 2) + left[frame];
+        final int sourceY = ((frame / columns) * frameSize) + (frameSize / 2) + top[frame];
+
+        final int destinationX = (int)x + left[frame];
+        final int destinationY = (int)y + top[frame];
+
+        graphics.drawImage(image,
+            destinationX, destinationY, destinationX + width[frame], destinationY + height[frame],
+            sourceX, sourceY, sourceX + width[frame], sourceY + height[frame], null);
+    }
+}
\ No newline at end of file
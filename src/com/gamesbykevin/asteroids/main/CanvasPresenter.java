@@ -0,0 +1,141 @@
+package com.gamesbykevin.asteroids.main;
+
+import com.gamesbykevin.asteroids.shared.Shared;
+
+import java.awt.BorderLayout;
+import java.awt.Canvas;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+
+/**
+ * Presents frames with page flipping.<br>
+ * The game is drawn to an accelerated VolatileImage which is then scaled onto the back buffer of a Canvas BufferStrategy.
+ * If the video memory holding either surface is lost the frame is drawn again.
+ * @author GOD
+ */
+public final class CanvasPresenter
+{
+    //the number of buffers in the strategy
+    private static final int BUFFER_COUNT = 2;
+
+    //how many times we will try to draw a frame if the surface keeps getting lost
+    private static final int MAX_ATTEMPTS = 3;
+
+    //the canvas covering the container
+    private Canvas canvas;
+
+    //the page flipping strategy, created once the canvas is displayable
+    private BufferStrategy strategy;
+
+    //the image the game is drawn to at the original size
+    private VolatileImage image;
+
+    /**
+     * Create a canvas and add it to the container so it covers the entire area
+     * @param container The applet or panel the game is displayed in
+     */
+    public CanvasPresenter(final Container container)
+    {
+        this.canvas = new Canvas();
+
+        //the canvas is drawn by us, not by the AWT repaint thread
+        this.canvas.setIgnoreRepaint(true);
+        this.canvas.setCursor(Shared.CURSOR);
+        this.canvas.setFocusable(true);
+
+        container.setLayout(new BorderLayout());
+        container.add(canvas, BorderLayout.CENTER);
+    }
+
+    public Canvas getCanvas()
+    {
+        return this.canvas;
+    }
+
+    /**
+     * Draw the game and show it on the canvas
+     * @param main Main object that draws the game
+     * @param window The area of the canvas to draw the game onto
+     * @throws Exception
+     */
+    public void present(final Main main, final Rectangle window) throws Exception
+    {
+        //we can't draw until the canvas is shown on screen
+        if (!canvas.isDisplayable())
+            return;
+
+        if (strategy == null)
+        {
+            canvas.createBufferStrategy(BUFFER_COUNT);
+            strategy = canvas.getBufferStrategy();
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+        {
+            //make sure the image is still usable
+            if (image == null || image.validate(canvas.getGraphicsConfiguration()) == VolatileImage.IMAGE_INCOMPATIBLE)
+            {
+                if (image != null)
+                    image.flush();
+
+                image = canvas.createVolatileImage(Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
+            }
+
+            //draw the game to the image
+            final Graphics2D imageGraphics = image.createGraphics();
+
+            try
+            {
+                main.renderFrame(imageGraphics);
+            }
+            finally
+            {
+                imageGraphics.dispose();
+            }
+
+            //if the image was lost while drawing start over
+            if (image.contentsLost())
+                continue;
+
+            //scale the image onto the back buffer
+            final Graphics graphics = strategy.getDrawGraphics();
+
+            try
+            {
+                graphics.drawImage(image, window.x, window.y, window.width, window.height, null);
+            }
+            finally
+            {
+                graphics.dispose();
+            }
+
+            //if the back buffer was lost start over, otherwise flip it to the screen
+            if (strategy.contentsRestored() || strategy.contentsLost())
+                continue;
+
+            strategy.show();
+            return;
+        }
+    }
+
+    /**
+     * Free up resources
+     */
+    public void dispose()
+    {
+        if (image != null)
+            image.flush();
+
+        image = null;
+
+        if (strategy != null)
+            strategy.dispose();
+
+        strategy = null;
+        canvas = null;
+    }
+}
\ No newline at end of file
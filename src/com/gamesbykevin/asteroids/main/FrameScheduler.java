@@ -0,0 +1,237 @@
+package com.gamesbykevin.asteroids.main;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides when the game needs to update and render, and how to wait in between.<br>
+ * Updates run on a fixed time step, if the game falls behind it will only catch up a limited number of updates.
+ * @author GOD
+ */
+public final class FrameScheduler
+{
+    /**
+     * How the scheduler waits for the next update or frame
+     */
+    public enum Policy
+    {
+        //park the thread for the entire wait, uses the least cpu but may wake up late
+        PowerSaving,
+
+        //park the thread until close to the deadline then spin for the remaining time
+        LowLatency,
+
+        //never wait and render a frame every loop, updates still run on the fixed time step
+        Unthrottled
+    }
+
+    //how the main loop waits between updates and frames
+    public static final Policy DEFAULT_POLICY = Policy.LowLatency;
+
+    //the maximum number of updates we will run to catch up before dropping the lost time
+    public static final int MAX_CATCH_UP_UPDATES = 5;
+
+    //when low latency we stop parking this many nanoseconds before the deadline and spin instead
+    private static final long SPIN_NANO_SECONDS = 2000000L;
+
+    //how many nanoseconds are there in one second
+    private static final long NANO_SECONDS_PER_SECOND = 1000000000L;
+
+    //how many nanoseconds between each update and frame
+    private final double nanoSecondsPerUpdate;
+    private final double nanoSecondsPerFrame;
+
+    //how we wait between updates and frames
+    private final Policy policy;
+
+    //the last time we checked the clock
+    private long lastRun;
+
+    //how many updates and frames are due, 1 or more means we are due
+    private double deltaUpdate = 0;
+    private double deltaFrame = 0;
+
+    //how many updates have been run to catch up this loop
+    private int catchUp = 0;
+    
+    //the clock time the last update was due, read by the renderer to draw in between updates
+    private volatile long updateDue;
+
+    //how late we woke up compared to the deadline, tracked over the current second
+    private long jitterTotal = 0, jitterMax = 0;
+    private int jitterCount = 0;
+
+    //the start of the current second of jitter tracking
+    private long jitterTimer;
+
+    //the jitter average and max from the previous second in nanoseconds
+    private long currentJitterAverage = 0, currentJitterMax = 0;
+
+    /**
+     * Create a new scheduler
+     * @param nanoSecondsPerUpdate Duration between each update
+     * @param nanoSecondsPerFrame Duration between each frame
+     * @param policy How to wait between updates and frames
+     */
+    public FrameScheduler(final double nanoSecondsPerUpdate, final double nanoSecondsPerFrame, final Policy policy)
+    {
+        this.nanoSecondsPerUpdate = nanoSecondsPerUpdate;
+        this.nanoSecondsPerFrame = nanoSecondsPerFrame;
+        this.policy = policy;
+
+        this.lastRun = System.nanoTime();
+        this.jitterTimer = lastRun;
+        this.updateDue = lastRun;
+    }
+
+    /**
+     * Check the clock and add the time passed to the updates and frames due
+     */
+    public void advance()
+    {
+        final long now = System.nanoTime();
+
+        deltaUpdate += ((now - lastRun) / nanoSecondsPerUpdate);
+        deltaFrame  += ((now - lastRun) / nanoSecondsPerFrame);
+
+        lastRun = now;
+
+        //if we are too far behind drop the time we can't catch up on
+        if (deltaUpdate > MAX_CATCH_UP_UPDATES)
+            deltaUpdate = MAX_CATCH_UP_UPDATES;
+
+        catchUp = 0;
+    }
+
+    /**
+     * Is an update due, if so the update is counted as done
+     * @return true if the game should update now, false otherwise
+     */
+    public boolean hasUpdate()
+    {
+        if (deltaUpdate < 1 || catchUp >= MAX_CATCH_UP_UPDATES)
+            return false;
+
+        deltaUpdate--;
+        catchUp++;
+
+        //the time left over is how long ago this update was due
+        updateDue = lastRun - (long)(deltaUpdate * nanoSecondsPerUpdate);
+
+        return true;
+    }
+
+    /**
+     * Is a frame due, if so the frame is counted as done.<br>
+     * If more than 1 frame is due the missed frames are dropped since only the latest is useful.
+     * @return true if the game should render now, false otherwise
+     */
+    public boolean hasFrame()
+    {
+        if (policy != Policy.Unthrottled && deltaFrame < 1)
+            return false;
+
+        deltaFrame = (deltaFrame >= 1) ? (deltaFrame % 1) : 0;
+
+        return true;
+    }
+
+    /**
+     * Wait until the next update or frame is due
+     */
+    public void waitForNext()
+    {
+        if (policy == Policy.Unthrottled)
+            return;
+
+        //the time remaining until the next update and frame are due
+        final long now = System.nanoTime();
+        final double untilUpdate = (1 - deltaUpdate) * nanoSecondsPerUpdate;
+        final double untilFrame  = (1 - deltaFrame)  * nanoSecondsPerFrame;
+
+        //the clock time when we need to wake up
+        final long deadline = now + (long)Math.max(0, Math.min(untilUpdate, untilFrame));
+
+        switch (policy)
+        {
+            case PowerSaving:
+                while (deadline - System.nanoTime() > 0)
+                {
+                    LockSupport.parkNanos(deadline - System.nanoTime());
+                }
+                break;
+
+            case LowLatency:
+            default:
+                //park until we are close then give the remaining time to the spin
+                while (deadline - System.nanoTime() > SPIN_NANO_SECONDS)
+                {
+                    LockSupport.parkNanos(deadline - System.nanoTime() - SPIN_NANO_SECONDS);
+                }
+
+                while (deadline - System.nanoTime() > 0)
+                {
+                    Thread.yield();
+                }
+                break;
+        }
+
+        updateJitter(System.nanoTime() - deadline);
+    }
+
+    /**
+     * Track how late we woke up
+     * @param late Nanoseconds past the deadline
+     */
+    private void updateJitter(final long late)
+    {
+        jitterTotal += late;
+        jitterMax = Math.max(jitterMax, late);
+        jitterCount++;
+
+        //if 1 second has passed store the results
+        if (System.nanoTime() - jitterTimer > NANO_SECONDS_PER_SECOND)
+        {
+            jitterTimer += NANO_SECONDS_PER_SECOND;
+
+            currentJitterAverage = jitterTotal / jitterCount;
+            currentJitterMax = jitterMax;
+
+            jitterTotal = 0;
+            jitterMax = 0;
+            jitterCount = 0;
+        }
+    }
+
+    /**
+     * Get how much of the time between updates has passed since the last update was due.<br>
+     * This is the left over update time, it may be read from a different thread than the one running the updates.
+     * @return The fraction from 0 to 1
+     */
+    public double getUpdateFraction()
+    {
+        return Math.max(0, Math.min(1, (System.nanoTime() - updateDue) / nanoSecondsPerUpdate));
+    }
+
+    public Policy getPolicy()
+    {
+        return this.policy;
+    }
+
+    /**
+     * Get the average time we woke up late during the previous second
+     * @return Nanoseconds
+     */
+    public long getJitterAverage()
+    {
+        return this.currentJitterAverage;
+    }
+
+    /**
+     * Get the most we woke up late during the previous second
+     * @return Nanoseconds
+     */
+    public long getJitterMax()
+    {
+        return this.currentJitterMax;
+    }
+}
\ No newline at end of file
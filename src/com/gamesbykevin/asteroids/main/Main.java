@@ -1,6 +1,8 @@
 package com.gamesbykevin.asteroids.main;
 
 import java.awt.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.swing.*;
 
 import com.gamesbykevin.asteroids.engine.Engine;
@@ -32,8 +34,8 @@ public final class Main extends Thread
     //how many nanoseconds between each frame render
     private double nanoSecondsPerFrame;
     
-    //frames per second
-    private int frames = 0;
+    //frames per second, counted on the render thread when rendering separately
+    private final AtomicInteger frames = new AtomicInteger();
     
     //updates per second
     private int updates = 0;
@@ -56,6 +58,21 @@ public final class Main extends Thread
     //cache this graphics object so we aren't constantly creating it
     private Graphics graphics;
     
+    //decides when to update/render and how to wait in between
+    private final FrameScheduler scheduler;
+    
+    //decides when to render if rendering on a separate thread, otherwise null
+    private final FrameScheduler renderScheduler;
+    
+    //presents frames with page flipping, null when drawing the image onto the container graphics
+    private CanvasPresenter presenter;
+    
+    //nanoseconds spent drawing and presenting frames since the last second
+    private final AtomicLong frameNanoSeconds = new AtomicLong();
+    
+    //the average nanoseconds to draw and present a frame during the previous second
+    private long currentFrameNanoSeconds = 0;
+    
     /**
      * Main class that runs the game engine
      * 
@@ -73,6 +90,19 @@ public final class Main extends Thread
         
         //duration per each frame render in nanoseconds
         nanoSecondsPerFrame = NANO_SECONDS_PER_SECOND / fps;
+        
+        if (Shared.RENDER_THREAD)
+        {
+            //this thread only updates and the render thread only renders
+            scheduler       = new FrameScheduler(nanoSecondsPerUpdate, Double.POSITIVE_INFINITY, FrameScheduler.DEFAULT_POLICY);
+            renderScheduler = new FrameScheduler(Double.POSITIVE_INFINITY, nanoSecondsPerFrame, FrameScheduler.DEFAULT_POLICY);
+        }
+        else
+        {
+            //create our scheduler with the default policy
+            scheduler       = new FrameScheduler(nanoSecondsPerUpdate, nanoSecondsPerFrame, FrameScheduler.DEFAULT_POLICY);
+            renderScheduler = null;
+        }
     }
     
     /**
@@ -83,7 +113,16 @@ public final class Main extends Thread
         engine = new Engine(this);
         
         //now that engine is created apply listeners so we can detect key/mouse input
-        if (applet != null)
+        if (Shared.PAGE_FLIPPING)
+        {
+            //the canvas covers the container so it will receive the input
+            presenter = new CanvasPresenter((applet != null) ? applet : panel);
+            presenter.getCanvas().addKeyListener(engine);
+            presenter.getCanvas().addMouseMotionListener(engine);
+            presenter.getCanvas().addMouseListener(engine);
+            presenter.getCanvas().requestFocus();
+        }
+        else if (applet != null)
         {
             applet.addKeyListener(engine);
             applet.addMouseMotionListener(engine);
@@ -100,48 +139,49 @@ public final class Main extends Thread
     @Override
     public void run()
     {
-        //we need to determine the last run so we can calculate ups/fps
-        long lastRun = System.nanoTime();
-        
         //this will reset ups/fps count every second
         long timer = System.nanoTime();
         
-        //this variables will keep track of the time passed
-        double deltaUpdate = 0;
-        double deltaFrame = 0;
+        //start drawing on a separate thread so a slow frame won't delay the updates
+        if (renderScheduler != null)
+        {
+            final Thread renderThread = new Thread(getName() + " Render")
+            {
+                @Override
+                public void run()
+                {
+                    runRender();
+                }
+            };
+            
+            //don't keep the application running once the main thread stops
+            renderThread.setDaemon(true);
+            renderThread.start();
+        }
         
         while(true)
         {
             try
             {
-                //get current system nano time
-                long now = System.nanoTime();
+                //add the time passed since the previous loop
+                scheduler.advance();
                 
-                //update these variables
-                deltaUpdate += ((now - lastRun) / nanoSecondsPerUpdate);
-                deltaFrame += ((now - lastRun) / nanoSecondsPerFrame);
-                
-                //set the current time as the last run
-                lastRun = now;
-                
-                while(deltaUpdate >= 1)
+                //run the updates that are due, limited so a slow update can't make us fall further behind
+                while(scheduler.hasUpdate())
                 {
                     if (engine != null)
                     {
                         engine.update(this);
 
                         updates++;
-                        deltaUpdate--;
                     }
                 }
                 
-                while(deltaFrame >= 1)
+                if (renderScheduler == null && scheduler.hasFrame())
                 {
-                    renderImage();
-                    drawScreen();
+                    renderFrame();
                     
-                    frames++;
-                    deltaFrame--;
+                    frames.incrementAndGet();
                 }
                 
                 //if 1 second has passed
@@ -152,15 +192,44 @@ public final class Main extends Thread
                     
                     //store the current fps/ups to be displayed to the user
                     currentUPS = updates;
-                    currentFPS = frames;
+                    currentFPS = frames.getAndSet(0);
+                    currentFrameNanoSeconds = frameNanoSeconds.getAndSet(0) / Math.max(1, currentFPS);
                     
                     //reset the counter
                     updates = 0;
-                    frames = 0;
                 }
                 
-                //sleep for 1,000 nanoseconds by default to give our thread a short break
-                Thread.sleep(0, 1000);
+                //wait until the next update or frame is due
+                scheduler.waitForNext();
+            }
+            catch(Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Render loop used when drawing on a separate thread
+     */
+    private void runRender()
+    {
+        while(true)
+        {
+            try
+            {
+                //add the time passed since the previous loop
+                renderScheduler.advance();
+                
+                if (renderScheduler.hasFrame())
+                {
+                    renderFrame();
+                    
+                    frames.incrementAndGet();
+                }
+                
+                //wait until the next frame is due
+                renderScheduler.waitForNext();
             }
             catch(Exception e)
             {
@@ -251,6 +320,15 @@ public final class Main extends Thread
         createGraphicsObject();
     }
     
+    /**
+     * Get how far we are from the last update to the next
+     * @return The fraction of the update duration that has passed, from 0 to 1
+     */
+    public double getUpdateFraction()
+    {
+        return scheduler.getUpdateFraction();
+    }
+    
     /**
      * Gets the number of nanoseconds between each update
      * 
@@ -261,6 +339,50 @@ public final class Main extends Thread
         return (long)nanoSecondsPerUpdate;
     }
     
+    /**
+     * Draw the next frame and present it to the user with the selected presentation path
+     * 
+     * @throws Exception 
+     */
+    private void renderFrame() throws Exception
+    {
+        final long start = System.nanoTime();
+        
+        if (presenter != null)
+        {
+            //make sure current window dimensions are set
+            if (currentWindow == null)
+                setFullScreen();
+            
+            presenter.present(this, currentWindow);
+        }
+        else
+        {
+            renderImage();
+            drawScreen();
+        }
+        
+        frameNanoSeconds.addAndGet(System.nanoTime() - start);
+    }
+    
+    /**
+     * Draw all game/menu elements onto the graphics object at the original size
+     * 
+     * @param graphics Graphics object to draw to
+     * @throws Exception 
+     */
+    protected void renderFrame(final Graphics graphics) throws Exception
+    {
+        //background by itself will be a black rectangle
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
+
+        engine.render(graphics);
+
+        if (Shared.DEBUG)
+            renderCounter(graphics);
+    }
+    
     /**
      * Writes all game/menu elements in our 
      * engine to our single bufferedImage.
@@ -274,14 +396,7 @@ public final class Main extends Thread
             if (bufferedImageGraphics == null)
                 bufferedImageGraphics = bufferedImage.getGraphics();
             
-            //background by itself will be a black rectangle
-            bufferedImageGraphics.setColor(Color.BLACK);
-            bufferedImageGraphics.fillRect(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
-
-            engine.render(bufferedImageGraphics);
-
-            if (Shared.DEBUG)
-                renderCounter(bufferedImageGraphics);
+            renderFrame(bufferedImageGraphics);
         }
         else
         {
@@ -296,7 +411,11 @@ public final class Main extends Thread
      */
     public boolean hasFocus()
     {
-        if (applet != null)
+        if (presenter != null && presenter.getCanvas().hasFocus())
+        {
+            return true;
+        }
+        else if (applet != null)
         {
             return applet.hasFocus();
         }
@@ -314,7 +433,8 @@ public final class Main extends Thread
      */
     private void renderCounter(Graphics graphics)
     {
-        String result = currentUPS + " UPS, " + currentFPS + " FPS";
+        String result = currentUPS + " UPS, " + currentFPS + " FPS, jitter " + (scheduler.getJitterAverage() / 1000) + "/" + (scheduler.getJitterMax() / 1000) + " us, ";
+        result += ((presenter != null) ? "flip " : "blit ") + (currentFrameNanoSeconds / 1000) + " us/frame";
         int width = graphics.getFontMetrics().stringWidth(result);
         int height = graphics.getFontMetrics().getHeight() + 1;
         Rectangle tmp = new Rectangle(originalSizeWindow.width - width, originalSizeWindow.height - height, width, height);
@@ -390,6 +510,11 @@ public final class Main extends Thread
     {
         engine.dispose();
         engine = null;
+        
+        if (presenter != null)
+            presenter.dispose();
+        
+        presenter = null;
         originalSizeWindow = null;
         fullSizeWindow = null;
         currentWindow = null;
@@ -1,25 +1,33 @@
 package com.gamesbykevin.asteroids.manager;
 
-import com.gamesbykevin.framework.menu.Menu;
 import com.gamesbykevin.framework.util.*;
 
 import com.gamesbykevin.asteroids.bullet.Bullet;
 import com.gamesbykevin.asteroids.engine.Engine;
-import com.gamesbykevin.asteroids.menu.CustomMenu.*;
+import com.gamesbykevin.asteroids.levelobject.CollisionStats;
+import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.levelobject.Rotation;
+import com.gamesbykevin.asteroids.levelobject.Shape;
 import com.gamesbykevin.asteroids.menu.option.*;
 import com.gamesbykevin.asteroids.meteor.Meteor;
 import com.gamesbykevin.asteroids.resources.GameAudio;
 import com.gamesbykevin.asteroids.resources.MenuImage;
-import com.gamesbykevin.asteroids.resources.Resources;
+import com.gamesbykevin.asteroids.shared.Shared;
 import com.gamesbykevin.asteroids.ship.*;
 import java.awt.Color;
 
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The parent class that contains all of the game elements
@@ -30,6 +38,12 @@ public final class Manager implements IManager
     //the hero ships in the game
     private List<Ship> ships;
     
+    //the id of each ship, in the same order as the ships
+    private long[] shipIds;
+    
+    //the number of live bullets fired by each ship, in the same order as the ships
+    private int[] bulletCounts;
+    
     //the bullets shot from the ship(s)
     private List<Bullet> bullets;
     
@@ -69,6 +83,75 @@ public final class Manager implements IManager
     //background image of space
     private Image background;
     
+    //the size of each cell in the collision grid, needs to be at least the width of the largest meteor
+    private static final int GRID_CELL_SIZE = 96;
+    
+    //collision broad-phase containing the meteors
+    private SpatialGrid<Meteor> grid;
+    
+    //re-usable list for the results of a grid query
+    private List<Meteor> neighbors;
+    
+    //re-usable list for the results of a distance query
+    private List<Meteor> nearby;
+    
+    //the meteors that have hit each other found in each cell of the grid, stored as 2 meteors after each other
+    private List<List<Meteor>> pairs;
+    
+    //the number of meteors that hit each other during the last update
+    private int meteorPairs = 0;
+    
+    //total pairs since the last stress report
+    private long stressPairs = 0;
+    
+    //threads shared by every game to update the meteors when there are a lot of them, null to always use the game thread
+    private static final ForkJoinPool WORKERS = createWorkers();
+    
+    //the fewest meteors before the work is split up between the threads, below this it takes longer to hand out than to do
+    private static final int PARALLEL_METEORS = 256;
+    
+    //how many pieces of work each thread gets so idle threads can take work from busy ones
+    private static final int TASKS_PER_THREAD = 4;
+    
+    //how many ticks between each stress test report
+    private static final int STRESS_REPORT_TICKS = 60;
+    
+    //total time spent updating the ships, meteors and bullets since the last stress report
+    private long stressNanoSeconds = 0;
+    
+    //number of ticks since the last stress report
+    private int stressTicks = 0;
+    
+    //re-usable bullets and meteors so no objects are created during game play
+    private Pool<Bullet> bulletPool;
+    private Pool<Meteor> meteorPool;
+    
+    //how many bullets/meteors the pools had created when the level started
+    private int levelStartCreated = 0;
+    
+    //snapshots of the game published at the end of each update for the renderer
+    private final SnapshotBuffer snapshots;
+    
+    //are the snapshots drawn, an engine without a display never renders so nothing is published
+    private final boolean display;
+    
+    //the values used to calculate the state hash
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+    
+    //polygons and rotation used by the renderer to draw the snapshot
+    private final Polygon meteorPolygon, bulletPolygon, bodyPolygon, thrustPolygon;
+    private final Rotation renderRotation;
+    
+    //the renderer formats the time remaining with its own timer so the update does not build the text every tick
+    private final Timer renderTimer;
+    
+    //the location and angle of the object being drawn, part of the way between its last 2 updates
+    private double renderX, renderY, renderAngle;
+    
+    //the number of color changes while drawing the last frame from the render commands
+    private int stateChanges = 0;
+    
     /**
      * Constructor for Manager, this is the point where we load any menu option configurations
      * @param engine
@@ -76,26 +159,40 @@ public final class Manager implements IManager
      */
     public Manager(final Engine engine) throws Exception
     {
-        //get the background
-        this.background = engine.getResources().getMenuImage(MenuImage.Keys.OptionBackground);
+        this(engine, new Settings(engine.getMenu()));
+    }
+    
+    /**
+     * Create the game with the specified settings, the engine does not need a menu or resources
+     * @param engine
+     * @param settings The mode, difficulty, lives and opponent difficulty to play with
+     * @throws Exception 
+     */
+    public Manager(final Engine engine, final Settings settings) throws Exception
+    {
+        //get the background, there won't be one without resources
+        if (engine.getResources() != null)
+            this.background = engine.getResources().getMenuImage(MenuImage.Keys.OptionBackground);
         
         //get the size of the screen
-        Rectangle screen = engine.getMain().getScreen();
+        Rectangle screen = engine.getScreen();
         
         //calculate the game window where game play will occur
         this.gameWindow = new Rectangle(screen.x, screen.y, screen.width, screen.height);
         
-        //get the menu object
-        final Menu menu = engine.getMenu();
-       
         //determine what mode is being played
-        this.mode = Mode.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Mode)];
+        this.mode = settings.getMode();
         
         //determine the game difficulty
-        this.difficulty = Difficulty.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Difficulty)];
+        this.difficulty = settings.getDifficulty();
 
         //there won't be any meteors in versus mode
-        if (mode != Mode.Selections.Vs)
+        if (mode != Mode.Selections.Vs && Shared.STRESS_METEORS > 0)
+        {
+            //start with a large number of meteors to test collision performance
+            this.meteorCount = Shared.STRESS_METEORS;
+        }
+        else if (mode != Mode.Selections.Vs)
         {
             //determine how many meteors to start with
             switch(this.difficulty)
@@ -121,7 +218,7 @@ public final class Manager implements IManager
         }
         
         //determine how many starting lives
-        switch(Lives.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Lives)])
+        switch(settings.getLives())
         {
             case Five:
                 this.startingLives = 5;
@@ -146,42 +243,91 @@ public final class Manager implements IManager
         //create our list that will contain the meteors
         this.meteors = new ArrayList<>();
         
+        //create the collision grid covering the game window
+        this.grid = new SpatialGrid<>(gameWindow, GRID_CELL_SIZE);
+        
+        //create the list for our grid query results
+        this.neighbors = new ArrayList<>();
+        this.nearby = new ArrayList<>();
+        
+        //create the list of collision pairs for each cell
+        this.pairs = new ArrayList<>(grid.getCellCount());
+        
+        for (int i=0; i < grid.getCellCount(); i++)
+        {
+            this.pairs.add(new ArrayList<Meteor>());
+        }
+        
+        //create the snapshots for the renderer
+        this.snapshots = new SnapshotBuffer();
+        this.display = engine.hasDisplay();
+        this.renderTimer = new Timer();
+        
+        //create the render polygons with the number of points in each shape
+        this.meteorPolygon = createPolygon(Shape.get(Shape.Type.Meteor, 1));
+        this.bulletPolygon = createPolygon(Shape.get(Shape.Type.Bullet, 1));
+        this.bodyPolygon   = createPolygon(Shape.get(Shape.Type.ShipBody, 1));
+        this.thrustPolygon = createPolygon(Shape.get(Shape.Type.ShipThrust, 1));
+        this.renderRotation = new Rotation();
+        
+        //create the pools for our bullets and meteors
+        this.bulletPool = new Pool<Bullet>()
+        {
+            @Override
+            protected Bullet create()
+            {
+                return new Bullet();
+            }
+        };
+        
+        this.meteorPool = new Pool<Meteor>()
+        {
+            @Override
+            protected Meteor create()
+            {
+                return new Meteor();
+            }
+        };
+        
         //if race mode create our timer
         if (mode == Mode.Selections.Race)
         {
             this.timer = new Timer(RACE_DELAY);
         }
         
+        //the number of updates between each time the cpu decides what to do
+        final int cpuPlanTicks = (int)(settings.getOpponentDifficulty().getDelay() / engine.getTime());
+        
         switch (mode)
         {
             case Original:
                 //add to human list
-                ships.add(new Human(DEFAULT_BULLET_LIMIT));
+                ships.add(createPlayer(DEFAULT_BULLET_LIMIT, cpuPlanTicks, settings));
                 break;
                 
             case Race:
                 //add human to list
-                ships.add(new Human(1));
+                ships.add(createPlayer(1, cpuPlanTicks, settings));
                 
                 //add opponent to list
-                ships.add(new Cpu(1));
+                ships.add(createCpu(1, cpuPlanTicks, settings.getOpponentTuning()));
                 break;
                 
             case Cooperative:
                 //add to human list
-                ships.add(new Human(DEFAULT_BULLET_LIMIT));
+                ships.add(createPlayer(DEFAULT_BULLET_LIMIT, cpuPlanTicks, settings));
 
                 //add opponent to list
-                ships.add(new Cpu(DEFAULT_BULLET_LIMIT));
+                ships.add(createCpu(DEFAULT_BULLET_LIMIT, cpuPlanTicks, settings.getOpponentTuning()));
                 break;
                       
                 
             case Vs:
                 //add to human list
-                ships.add(new Human(DEFAULT_BULLET_LIMIT));
+                ships.add(createPlayer(DEFAULT_BULLET_LIMIT, cpuPlanTicks, settings));
 
                 //add opponent to list
-                ships.add(new Cpu(DEFAULT_BULLET_LIMIT));
+                ships.add(createCpu(DEFAULT_BULLET_LIMIT, cpuPlanTicks, settings.getOpponentTuning()));
                 break;
                 
             default:
@@ -194,8 +340,30 @@ public final class Manager implements IManager
             ship.setLives(startingLives);
         }
         
+        //the ships don't change during the game so they can be found by id, there are only 1 or 2 so a search is quick
+        this.shipIds = new long[getShips().size()];
+        this.bulletCounts = new int[getShips().size()];
+        
+        for (int i=0; i < getShips().size(); i++)
+        {
+            shipIds[i] = getShips().get(i).getId();
+        }
+        
         //reset the game
         reset(screen, engine.getRandom());
+        
+        //publish the starting state so there is something to draw
+        publishSnapshot();
+    }
+    
+    /**
+     * Create a polygon with room for every point in the shape
+     * @param shape The shape the polygon will be used for
+     * @return A new polygon
+     */
+    private static Polygon createPolygon(final Shape shape)
+    {
+        return new Polygon(new int[shape.getCount()], new int[shape.getCount()], shape.getCount());
     }
     
     public Mode.Selections getMode()
@@ -203,6 +371,33 @@ public final class Manager implements IManager
         return this.mode;
     }
     
+    /**
+     * Get the level we are on
+     * @return The level #
+     */
+    public int getLevel()
+    {
+        return this.level;
+    }
+    
+    /**
+     * Has the game ended
+     * @return true if the game is over, false otherwise
+     */
+    public boolean hasGameOver()
+    {
+        return this.gameOver;
+    }
+    
+    /**
+     * Get the timer used for race mode
+     * @return The timer, null if we are not playing race mode
+     */
+    public Timer getTimer()
+    {
+        return this.timer;
+    }
+    
     /**
      * Get the game window
      * @return The Rectangle where game play will take place
@@ -230,7 +425,7 @@ public final class Manager implements IManager
                 //reset back to middle of screen
                 ship.resetVelocity();
                 ship.resetAngle();
-                ship.setLocation(screen.x + (screen.width / 2), screen.y + (screen.height / 2));
+                ship.place(screen.x + (screen.width / 2), screen.y + (screen.height / 2));
             }
         }
         else
@@ -244,21 +439,93 @@ public final class Manager implements IManager
             getShips().get(1).resetAngle();
             
             //now place them on opposite sides
-            getShips().get(0).setLocation(screen.x + getShips().get(0).getSize(),                screen.y + random.nextInt(screen.height));
-            getShips().get(1).setLocation(screen.x + screen.width - getShips().get(1).getSize(), screen.y + random.nextInt(screen.height));
+            getShips().get(0).place(screen.x + getShips().get(0).getSize(),                screen.y + random.nextInt(screen.height));
+            getShips().get(1).place(screen.x + screen.width - getShips().get(1).getSize(), screen.y + random.nextInt(screen.height));
         }
         
         //remove any existing bullets
+        for (int i=0; i < getBullets().size(); i++)
+        {
+            bulletPool.release(getBullets().get(i));
+        }
+        
         getBullets().clear();
         
+        for (int i=0; i < bulletCounts.length; i++)
+        {
+            bulletCounts[i] = 0;
+        }
+        
         //remove any existing meteors
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            meteorPool.release(getMeteors().get(i));
+        }
+        
         getMeteors().clear();
+        grid.clear();
         
         //add the specified number of meteors
         for (int count=0; count < this.meteorCount; count++)
         {
             addMeteor(screen, random);
         }
+        
+        //track the number of objects created from this point
+        levelStartCreated = getCreatedCount();
+    }
+    
+    /**
+     * Get the number of bullets and meteors the pools have created
+     * @return The total count of objects created
+     */
+    private int getCreatedCount()
+    {
+        return bulletPool.getCreated() + meteorPool.getCreated();
+    }
+    
+    /**
+     * Get the number of bullets and meteors the pools created since the level started, other allocations are not counted
+     * @return The count of objects created during this level
+     */
+    public int getLevelPoolCreated()
+    {
+        return getCreatedCount() - levelStartCreated;
+    }
+    
+    /**
+     * Create the ship for the first player, played by a human unless the settings have a cpu tuning for the player
+     * @param bulletLimit The number of bullets the ship can have in the game at once
+     * @param planTicks The number of updates between each time a cpu decides what to do
+     * @param settings The options the game is created with
+     * @return The ship
+     */
+    private Ship createPlayer(final int bulletLimit, final int planTicks, final Settings settings)
+    {
+        if (settings.getPlayerTuning() == null)
+            return new Human(bulletLimit);
+        
+        return createCpu(bulletLimit, planTicks, settings.getPlayerTuning());
+    }
+    
+    /**
+     * Create a cpu ship, each cpu starts planning on a different update so they don't all plan at the same time
+     * @param bulletLimit The number of bullets the cpu can have in the game at once
+     * @param planTicks The number of updates between each time the cpu decides what to do
+     * @param tuning The values that decide how the cpu plays
+     * @return The cpu
+     */
+    private Cpu createCpu(final int bulletLimit, final int planTicks, final CpuTuning tuning)
+    {
+        int count = 0;
+        
+        for (Ship ship : getShips())
+        {
+            if (ship instanceof Cpu)
+                count++;
+        }
+        
+        return new Cpu(bulletLimit, planTicks, count, tuning);
     }
     
     /**
@@ -268,13 +535,37 @@ public final class Manager implements IManager
      */
     public Ship getShip(final long id)
     {
-        for (Ship ship : getShips())
+        final int index = getShipIndex(id);
+        
+        return (index >= 0) ? getShips().get(index) : null;
+    }
+    
+    /**
+     * Get the position of the ship in the list of ships
+     * @param id Unique key of the ship
+     * @return The index of the ship, -1 if the ship was not found
+     */
+    private int getShipIndex(final long id)
+    {
+        for (int i=0; i < shipIds.length; i++)
         {
-            if (ship.getId() == id)
-                return ship;
+            if (shipIds[i] == id)
+                return i;
         }
         
-        return null;
+        return -1;
+    }
+    
+    /**
+     * Get the number of bullets fired by the ship that are still in the game
+     * @param id Unique key of the ship
+     * @return The count of bullets, 0 if the ship was not found
+     */
+    public int getBulletCount(final long id)
+    {
+        final int index = getShipIndex(id);
+        
+        return (index >= 0) ? bulletCounts[index] : 0;
     }
     
     public List<Ship> getShips()
@@ -292,6 +583,60 @@ public final class Manager implements IManager
         return this.bullets;
     }
     
+    /**
+     * Fire a bullet from the ship
+     * @param ship The ship the bullet was fired from
+     */
+    public void addBullet(final Ship ship)
+    {
+        //get a bullet from the pool
+        final Bullet bullet = bulletPool.acquire();
+        
+        //set the location, speed and parent from the ship
+        bullet.reset(ship);
+        
+        //add bullet to list
+        getBullets().add(bullet);
+        
+        //count the bullet for the ship that fired it
+        bulletCounts[getShipIndex(ship.getId())]++;
+    }
+    
+    /**
+     * Get the meteors that are close enough to collide with the object.<br>
+     * The returned list is re-used by every query so it should not be stored.
+     * @param object The object we want to check for collision
+     * @return List of meteors in the cells surrounding the object, which may include the object itself
+     */
+    public List<Meteor> getMeteors(final LevelObject object)
+    {
+        return grid.getNeighbors(object, neighbors);
+    }
+    
+    /**
+     * Get the meteors within the distance of the object.<br>
+     * The returned list is re-used by every distance query so it should not be stored.
+     * @param object The object in the center of the search
+     * @param radius The distance from the object
+     * @return List of meteors placed in the grid at the start of the update that are within the distance
+     */
+    public List<Meteor> getMeteors(final LevelObject object, final double radius)
+    {
+        return grid.getWithin(object.getX(), object.getY(), radius, nearby);
+    }
+    
+    /**
+     * Get the meteors closest to the object.<br>
+     * The returned list is re-used by every distance query so it should not be stored.
+     * @param object The object in the center of the search
+     * @param count The number of meteors we want
+     * @return List of meteors placed in the grid at the start of the update, sorted from closest to farthest
+     */
+    public List<Meteor> getNearestMeteors(final LevelObject object, final int count)
+    {
+        return grid.getNearest(object.getX(), object.getY(), count, nearby);
+    }
+    
     /**
      * Free up resources
      */
@@ -307,6 +652,10 @@ public final class Manager implements IManager
         ships.clear();
         ships = null;
         
+        shipIds = null;
+        
+        bulletCounts = null;
+        
         for (Meteor meteor : meteors)
         {
             meteor.dispose();
@@ -324,6 +673,24 @@ public final class Manager implements IManager
         
         bullets.clear();
         bullets = null;
+        
+        bulletPool.dispose();
+        bulletPool = null;
+        
+        meteorPool.dispose();
+        meteorPool = null;
+        
+        grid.dispose();
+        grid = null;
+        
+        pairs.clear();
+        pairs = null;
+        
+        neighbors.clear();
+        neighbors = null;
+        
+        nearby.clear();
+        nearby = null;
     }
     
     /**
@@ -339,29 +706,282 @@ public final class Manager implements IManager
         if (gameOver)
             return;
         
-        for (Ship ship : getShips())
+        //track how long the updates take when stress testing
+        final long start = System.nanoTime();
+        
+        //number the meteors in list order, the order is the same after a game is restored while the ids are not
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            getMeteors().get(i).setIndex(i);
+        }
+        
+        //place the meteors in the collision grid at their current location
+        grid.rebuild(getMeteors());
+        
+        for (int i=0; i < getShips().size(); i++)
+        {
+            final Ship ship = getShips().get(i);
+            
+            //remember where the ship was so it can be drawn in between updates
+            ship.storePrevious();
+            
+            //update ship
+            ship.update(engine);
+        }
+        
+        //update meteors
+        updateMeteors(engine);
+        
+        for (int i=0; i < getBullets().size(); i++)
+        {
+            final Bullet bullet = getBullets().get(i);
+            
+            //remember where the bullet was so it can be drawn in between updates
+            bullet.storePrevious();
+            
+            //update bullet state
+            bullet.update(engine);
+        }
+        
+        if (Shared.STRESS_METEORS > 0)
+            updateStressReport(System.nanoTime() - start);
+        
+        //check the game mode
+        checkMode(engine);
+        
+        //finally perform cleanup of marked object
+        cleanupObjects(engine);
+        
+        //give the renderer the latest state
+        publishSnapshot();
+    }
+    
+    /**
+     * Create the threads used to update the meteors
+     * @return The pool of threads, null if there is only 1 thread
+     */
+    private static ForkJoinPool createWorkers()
+    {
+        final int threads = (Shared.METEOR_THREADS > 0) ? Shared.METEOR_THREADS : Runtime.getRuntime().availableProcessors();
+        
+        return (threads > 1) ? new ForkJoinPool(threads) : null;
+    }
+    
+    /**
+     * Update the meteors in 3 stages so the result is exactly the same on 1 thread or many.<br>
+     * 1. Every pair of meteors that have hit each other is found once, the locations are only read.<br>
+     * 2. The pairs are resolved from the velocities before the update, then each meteor applies the result in list order.<br>
+     * 3. Every meteor moves, each meteor only changes itself.<br>
+     * Stages 1 and 3 are split up by cells of the grid and run on the worker threads when there are enough meteors.
+     * @param engine Our main game engine
+     */
+    private void updateMeteors(final Engine engine)
+    {
+        final boolean parallel = (WORKERS != null && getMeteors().size() >= PARALLEL_METEORS);
+        
+        updateMeteors(Stage.Collision, parallel);
+        
+        resolvePairs();
+        
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            getMeteors().get(i).applyCollision(engine.getRandom());
+        }
+        
+        updateMeteors(Stage.Move, parallel);
+    }
+    
+    /**
+     * Give both meteors of every pair the velocity of the other, in the order the cells are stored
+     */
+    private void resolvePairs()
+    {
+        meteorPairs = 0;
+        
+        for (int cell = 0; cell < pairs.size(); cell++)
+        {
+            final List<Meteor> list = pairs.get(cell);
+            
+            for (int i=0; i < list.size(); i += 2)
+            {
+                list.get(i).addCollision(list.get(i + 1));
+                list.get(i + 1).addCollision(list.get(i));
+            }
+            
+            meteorPairs += list.size() / 2;
+            
+            //don't keep references to meteors that may be released
+            list.clear();
+        }
+    }
+    
+    /**
+     * Get the number of meteors that hit each other during the last update
+     * @return The count of pairs, each pair is counted once
+     */
+    public int getMeteorPairs()
+    {
+        return this.meteorPairs;
+    }
+    
+    /**
+     * Find the meteors in the cell that have hit a neighbor.<br>
+     * Only the meteor earlier in the list checks the pair so each pair is found once, in the cell of that meteor.
+     * @param cell The index of the cell
+     * @param results List for the results of the grid query
+     */
+    private void findPairs(final int cell, final List<Meteor> results)
+    {
+        final List<Meteor> list = grid.getCell(cell);
+        
+        for (int i=0; i < list.size(); i++)
+        {
+            final Meteor meteor = list.get(i);
+            
+            final List<Meteor> nearby = grid.getNeighbors(meteor, results);
+            
+            for (int j=0; j < nearby.size(); j++)
+            {
+                final Meteor tmp = nearby.get(j);
+                
+                //the other meteor will check this pair, or it is the same meteor
+                if (tmp.getIndex() <= meteor.getIndex())
+                    continue;
+                
+                if (meteor.hasCollision(tmp))
+                {
+                    pairs.get(cell).add(meteor);
+                    pairs.get(cell).add(tmp);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Run the stage for every meteor in the grid
+     * @param stage The stage to run
+     * @param parallel Do we split the work up between the worker threads
+     */
+    private void updateMeteors(final Stage stage, final boolean parallel)
+    {
+        if (parallel)
+        {
+            WORKERS.invoke(new MeteorTask(stage, 0, grid.getCellCount(), Math.max(1, grid.getCellCount() / (WORKERS.getParallelism() * TASKS_PER_THREAD)), null));
+        }
+        else
+        {
+            updateCells(stage, 0, grid.getCellCount(), neighbors);
+        }
+    }
+    
+    /**
+     * Run the stage for the meteors in a range of grid cells
+     * @param stage The stage to run
+     * @param start The first cell
+     * @param end The cell after the last
+     * @param results List for the results of a grid query
+     */
+    private void updateCells(final Stage stage, final int start, final int end, final List<Meteor> results)
+    {
+        for (int cell = start; cell < end; cell++)
+        {
+            switch (stage)
+            {
+                case Collision:
+                    findPairs(cell, results);
+                    break;
+                    
+                case Move:
+                    final List<Meteor> list = grid.getCell(cell);
+                    
+                    for (int i=0; i < list.size(); i++)
+                    {
+                        //remember where the meteor was so it can be drawn in between updates
+                        list.get(i).storePrevious();
+                        
+                        list.get(i).move(getGameWindow());
+                    }
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * The stages of the meteor update that can run at the same time for every meteor
+     */
+    private enum Stage
+    {
+        Collision, Move
+    }
+    
+    /**
+     * Run a stage for the meteors in a range of grid cells, splitting the range in half until it is small enough.<br>
+     * Every meteor is stored in exactly 1 cell so no meteor is handled by 2 tasks.
+     */
+    private final class MeteorTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        
+        //the stage to run
+        private final Stage stage;
+        
+        //the first cell and the cell after the last
+        private final int start, end;
+        
+        //the most cells a task will handle without splitting
+        private final int cells;
+        
+        //list for the results of a grid query, null to create one
+        private final List<Meteor> results;
+        
+        private MeteorTask(final Stage stage, final int start, final int end, final int cells, final List<Meteor> results)
         {
-            //update ship
-            ship.update(engine);
+            this.stage = stage;
+            this.start = start;
+            this.end = end;
+            this.cells = cells;
+            this.results = results;
         }
         
-        for (Meteor meteor : getMeteors())
+        @Override
+        protected void compute()
         {
-            //update meteor
-            meteor.update(engine);
+            if (end - start > cells)
+            {
+                final int middle = (start + end) >>> 1;
+                
+                invokeAll(new MeteorTask(stage, start, middle, cells, null), new MeteorTask(stage, middle, end, cells, null));
+                return;
+            }
+            
+            //tasks running at the same time can't share a list
+            updateCells(stage, start, end, (results != null) ? results : new ArrayList<Meteor>());
         }
+    }
+    
+    /**
+     * Track the update duration and print the average every few ticks
+     * @param duration Time in nanoseconds the ship, meteor and bullet updates took this tick
+     */
+    private void updateStressReport(final long duration)
+    {
+        stressNanoSeconds += duration;
+        stressPairs += meteorPairs;
+        stressTicks++;
         
-        for (Bullet bullet : getBullets())
+        if (stressTicks >= STRESS_REPORT_TICKS)
         {
-            //update bullet state
-            bullet.update(engine);
+            final long average = stressNanoSeconds / stressTicks;
+            
+            System.out.println("Meteors = " + getMeteors().size() + ", ns/tick = " + average + ", ns/meteor = " + (average / Math.max(1, getMeteors().size())) + ", pairs/tick = " + (stressPairs / stressTicks));
+            System.out.println(CollisionStats.getDescription());
+            
+            CollisionStats.reset();
+            
+            stressNanoSeconds = 0;
+            stressPairs = 0;
+            stressTicks = 0;
         }
-        
-        //check the game mode
-        checkMode(engine);
-        
-        //finally perform cleanup of marked object
-        cleanupObjects(engine.getResources());
     }
     
     /**
@@ -374,8 +994,10 @@ public final class Manager implements IManager
         boolean allDestroyed = true;
         
         //check if all meteors are dead
-        for (Meteor meteor : getMeteors())
+        for (int i=0; i < getMeteors().size(); i++)
         {
+            final Meteor meteor = getMeteors().get(i);
+            
             if (!meteor.isDead())
             {
                 allDestroyed = false;
@@ -390,8 +1012,10 @@ public final class Manager implements IManager
                 //are all ships dead
                 boolean allDead = true;
                 
-                for (Ship ship : getShips())
+                for (int i=0; i < getShips().size(); i++)
                 {
+                    final Ship ship = getShips().get(i);
+                    
                     if (ship.isDead())
                     {
                         //if a ship has lives then all ships aren't dead
@@ -399,7 +1023,7 @@ public final class Manager implements IManager
                             allDead = false;
                         
                         //reset ship to the center
-                        ship.setLocation(
+                        ship.place(
                             getGameWindow().x + (getGameWindow().width / 2), 
                             getGameWindow().y + (getGameWindow().height / 2));
                     }
@@ -432,15 +1056,17 @@ public final class Manager implements IManager
             case Race:
                 
                 //update our timer
-                timer.update(engine.getMain().getTime());
+                timer.update(engine.getTime());
                 
-                for (Ship ship : getShips())
+                for (int i=0; i < getShips().size(); i++)
                 {
+                    final Ship ship = getShips().get(i);
+                    
                     //if a ship is dead but still has lives, reset location
                     if (ship.isDead() && ship.getLives() > 0)
                     {
                         //reset ship to the center
-                        ship.setLocation(
+                        ship.place(
                             getGameWindow().x + (getGameWindow().width / 2), 
                             getGameWindow().y + (getGameWindow().height / 2));
                     }
@@ -466,8 +1092,10 @@ public final class Manager implements IManager
                 
                 boolean isDead = false;
                 
-                for (Ship ship : getShips())
+                for (int i=0; i < getShips().size(); i++)
                 {
+                    final Ship ship = getShips().get(i);
+                    
                     if (ship.isDead())
                     {
                         if (ship.getLives() > 0)
@@ -486,8 +1114,10 @@ public final class Manager implements IManager
                 if (isDead)
                 {
                     //reset the spawn protection for the ships
-                    for (Ship ship : getShips())
+                    for (int i=0; i < getShips().size(); i++)
                     {
+                        final Ship ship = getShips().get(i);
+                        
                         ship.resetTimer();
                     }
                     
@@ -529,23 +1159,26 @@ public final class Manager implements IManager
      */
     private void addMeteor(final double x, final double y, final Meteor meteor, final Random random)
     {
-        //create new meteor
-        Meteor tmp;
+        //get a meteor from the pool
+        final Meteor tmp = meteorPool.acquire();
 
         if (meteor != null)
         {
-            tmp = new Meteor(x, y, Meteor.getRandomVelocity(random), Meteor.getRandomDirection(random), meteor.getSize() / 2, meteor.getHits() - 1);
+            tmp.reset(x, y, Meteor.getRandomVelocity(random), Meteor.getRandomDirection(random), meteor.getSize() / 2, meteor.getHits() - 1);
             
             //mark the parent where it came from
             tmp.setParentId(meteor.getId());
         }
         else
         {
-            tmp = new Meteor(x, y, random);
+            tmp.reset(x, y, random);
         }
 
         //add meteor to our list
         getMeteors().add(tmp);
+        
+        //add to the grid so it can be hit during the current update
+        grid.add(tmp);
     }
     
     /**
@@ -592,35 +1225,72 @@ public final class Manager implements IManager
     }
     
     /**
-     * Remove any bullets, meteors, ships that are marked as dead.
+     * Remove everything from the end of the list, starting at the size.<br>
+     * Removing the last element doesn't shift anything, and unlike subList() no view object is created.
+     * @param list The list to shorten
+     * @param size The number of elements to keep
+     */
+    private static void removeEnd(final List<?> list, final int size)
+    {
+        while (list.size() > size)
+        {
+            list.remove(list.size() - 1);
+        }
+    }
+    
+    /**
+     * Remove any bullets, meteors, ships that are marked as dead.<br>
+     * The bullets and meteors left are moved forward in 1 pass keeping their order, 
+     * then the end of the list is removed from the back instead of shifting the list for every removal.
      */
-    private void cleanupObjects(final Resources resources)
+    private void cleanupObjects(final Engine engine)
     {
+        //where the next bullet that is still alive is moved to
+        int alive = 0;
+        
         for (int i=0; i < getBullets().size(); i++)
         {
+            final Bullet bullet = getBullets().get(i);
+            
             //if the bullet is dead remove it
-            if (getBullets().get(i).isDead())
+            if (bullet.isDead())
             {
-                getBullets().remove(i);
-                i--;
+                //the ship that fired the bullet can fire another
+                bulletCounts[getShipIndex(bullet.getParentId())]--;
+                
+                bulletPool.release(bullet);
+            }
+            else
+            {
+                getBullets().set(alive++, bullet);
             }
         }
         
-        boolean anyDead = false;
+        removeEnd(getBullets(), alive);
+        
+        alive = 0;
         
         for (int i=0; i < getMeteors().size(); i++)
         {
-            //if the bullet is dead remove it
-            if (getMeteors().get(i).isDead())
+            final Meteor meteor = getMeteors().get(i);
+            
+            //if the meteor is dead remove it
+            if (meteor.isDead())
             {
-                anyDead = true;
-                getMeteors().remove(i);
-                i--;
+                meteorPool.release(meteor);
+            }
+            else
+            {
+                getMeteors().set(alive++, meteor);
             }
         }
         
+        boolean anyDead = (alive < getMeteors().size());
+        
+        removeEnd(getMeteors(), alive);
+        
         if (anyDead)
-            resources.playGameAudio(GameAudio.Keys.Explosion, false);
+            engine.playGameAudio(GameAudio.Keys.Explosion, false);
         
         anyDead = false;
         
@@ -646,75 +1316,287 @@ public final class Manager implements IManager
         }
         
         if (anyDead)
-            resources.playGameAudio(GameAudio.Keys.Crash, false);
+            engine.playGameAudio(GameAudio.Keys.Crash, false);
+    }
+    
+    /**
+     * Write the state of the game: level, timer, ships, meteors and bullets.<br>
+     * The settings are not written, the game is restored into a manager created with the same settings.
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    public void write(final DataOutput out) throws IOException
+    {
+        out.writeInt(level);
+        out.writeInt(meteorCount);
+        out.writeBoolean(gameOver);
+        out.writeLong((timer != null) ? timer.getRemaining() : 0);
+        
+        out.writeInt(getShips().size());
+        
+        for (int i=0; i < getShips().size(); i++)
+        {
+            getShips().get(i).write(out);
+        }
+        
+        out.writeInt(getMeteors().size());
+        
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            getMeteors().get(i).write(out);
+        }
+        
+        out.writeInt(getBullets().size());
+        
+        for (int i=0; i < getBullets().size(); i++)
+        {
+            //the ship ids will be different when restored so store which ship fired the bullet
+            out.writeByte(getShipIndex(getBullets().get(i).getParentId()));
+            
+            getBullets().get(i).write(out);
+        }
+    }
+    
+    /**
+     * Replace the state of the game with the state written by write()
+     * @param in Where the state is read from
+     * @throws IOException if the state was written with different settings
+     */
+    public void read(final DataInput in) throws IOException
+    {
+        this.level = in.readInt();
+        this.meteorCount = in.readInt();
+        this.gameOver = in.readBoolean();
+        
+        final long remaining = in.readLong();
+        
+        if (timer != null)
+            timer.setRemaining(remaining);
+        
+        if (in.readInt() != getShips().size())
+            throw new IOException("The number of ships does not match the game mode");
+        
+        for (int i=0; i < getShips().size(); i++)
+        {
+            getShips().get(i).read(in);
+        }
+        
+        //replace the meteors and bullets with ones from the pools
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            meteorPool.release(getMeteors().get(i));
+        }
+        
+        getMeteors().clear();
+        
+        for (int i=0, count = in.readInt(); i < count; i++)
+        {
+            final Meteor meteor = meteorPool.acquire();
+            meteor.read(in);
+            getMeteors().add(meteor);
+        }
+        
+        grid.rebuild(getMeteors());
+        
+        for (int i=0; i < getBullets().size(); i++)
+        {
+            bulletPool.release(getBullets().get(i));
+        }
+        
+        getBullets().clear();
+        
+        for (int i=0; i < bulletCounts.length; i++)
+        {
+            bulletCounts[i] = 0;
+        }
+        
+        for (int i=0, count = in.readInt(); i < count; i++)
+        {
+            final int index = in.readByte();
+            
+            final Bullet bullet = bulletPool.acquire();
+            bullet.read(in, getShips().get(index));
+            getBullets().add(bullet);
+            
+            bulletCounts[index]++;
+        }
+        
+        //the renderer should show the restored game
+        publishSnapshot();
+    }
+    
+    /**
+     * Calculate a hash of the game state.<br>
+     * Two games played with the same settings, seed and input will have the same hash.
+     * The object ids are not included since they depend on how many objects were created before the game.
+     * @return The hash of the ships, meteors, bullets, level and timer
+     */
+    public long getHash()
+    {
+        long hash = HASH_OFFSET;
+        
+        hash = hash(hash, level);
+        hash = hash(hash, meteorCount);
+        hash = hash(hash, (gameOver) ? 1 : 0);
+        hash = hash(hash, (timer != null) ? timer.getRemaining() : 0);
+        
+        for (int i=0; i < getShips().size(); i++)
+        {
+            final Ship ship = getShips().get(i);
+            
+            hash = hash(hash, ship);
+            hash = hash(hash, ship.getLives());
+            hash = hash(hash, ship.getKills());
+        }
+        
+        for (int i=0; i < getMeteors().size(); i++)
+        {
+            final Meteor meteor = getMeteors().get(i);
+            
+            hash = hash(hash, meteor);
+            hash = hash(hash, meteor.getHits());
+        }
+        
+        for (int i=0; i < getBullets().size(); i++)
+        {
+            final Bullet bullet = getBullets().get(i);
+            
+            hash = hash(hash, bullet);
+        }
+        
+        return hash;
+    }
+    
+    /**
+     * Add the location, speed, angle, size and death of the object to the hash
+     * @param hash The current hash
+     * @param object The object to add
+     * @return The new hash
+     */
+    private static long hash(long hash, final LevelObject object)
+    {
+        hash = hash(hash, Double.doubleToLongBits(object.getX()));
+        hash = hash(hash, Double.doubleToLongBits(object.getY()));
+        hash = hash(hash, Double.doubleToLongBits(object.getVelocityX()));
+        hash = hash(hash, Double.doubleToLongBits(object.getVelocityY()));
+        hash = hash(hash, Double.doubleToLongBits(object.getAngle()));
+        hash = hash(hash, object.getSize());
+        hash = hash(hash, (object.isDead()) ? 1 : 0);
+        
+        return hash;
+    }
+    
+    /**
+     * Add the value to the hash
+     * @param hash The current hash
+     * @param value The value to add
+     * @return The new hash
+     */
+    private static long hash(final long hash, final long value)
+    {
+        return (hash ^ value) * HASH_PRIME;
+    }
+    
+    /**
+     * Copy the current state of the game into a snapshot and publish it for the renderer.<br>
+     * Nothing is copied when the engine has no display.
+     */
+    private void publishSnapshot()
+    {
+        if (!display)
+            return;
+        
+        snapshots.getBack().load(this);
+        snapshots.publish();
     }
     
     /**
-     * Draw all of our application elements
+     * Draw all of our application elements from the latest published snapshot
      * @param graphics Graphics object used for drawing
      */
     @Override
     public void render(final Graphics graphics)
+    {
+        render(graphics, 1);
+    }
+    
+    /**
+     * Draw all of our application elements from the latest published snapshot<br>
+     * Each object is drawn part of the way between its location before and after the last update.
+     * @param graphics Graphics object used for drawing
+     * @param fraction How far to draw between the previous and current location, 0 is previous and 1 is current
+     */
+    public void render(final Graphics graphics, final double fraction)
     {
         graphics.drawImage(background, gameWindow.x, gameWindow.y, gameWindow.width, gameWindow.height, null);
         
-        for (Meteor meteor : getMeteors())
-        {
-            meteor.render(graphics);
-        }
+        final WorldSnapshot snapshot = snapshots.getFront();
         
-        for (Ship ship : getShips())
+        //nothing has been published yet
+        if (snapshot.isEmpty())
+            return;
+        
+        if (Shared.RENDER_COMMANDS)
         {
-            //only draw the ship if it is not dead
-            if (!ship.isDead())
-            {
-                ship.render(graphics);
-            }
+            renderCommands(graphics, snapshot.getCommands(), fraction);
         }
-        
-        for (Bullet bullet : getBullets())
+        else
         {
-            bullet.render(graphics);
+            renderObjects(graphics, snapshot, fraction);
         }
         
+        final RenderStore shipStates = snapshot.getShips();
+        
         //draw the game stats
         switch(mode)
         {
             case Original:
                 graphics.setColor(Color.WHITE);
-                graphics.drawString("Level: " + level,                         25, 25);
-                graphics.drawString("Lives: " + getShips().get(0).getLives(), 125, 25);
-                graphics.drawString("Kills: " + getShips().get(0).getKills(), 225, 25);
+                graphics.drawString("Level: " + snapshot.getLevel(),    25, 25);
+                graphics.drawString("Lives: " + snapshot.getLives(0), 125, 25);
+                graphics.drawString("Kills: " + snapshot.getKills(0), 225, 25);
                 break;
                 
             case Race:
-                graphics.setColor(getShips().get(0).getColor());
-                graphics.drawString("Hum Kills: " + getShips().get(0).getKills(), 15, 25);
+                graphics.setColor(snapshot.getColor(0));
+                graphics.drawString("Hum Kills: " + snapshot.getKills(0), 15, 25);
                 graphics.setColor(Color.WHITE);
-                graphics.drawString("Time: " + timer.getDescRemaining(Timers.FORMAT_7), 200, 25);
-                graphics.setColor(getShips().get(1).getColor());
-                graphics.drawString("Cpu Kills: " + getShips().get(1).getKills(), 375, 25);
+                renderTimer.setRemaining(snapshot.getTimeRemaining());
+                graphics.drawString("Time: " + renderTimer.getDescRemaining(Timers.FORMAT_7), 200, 25);
+                graphics.setColor(snapshot.getColor(1));
+                graphics.drawString("Cpu Kills: " + snapshot.getKills(1), 375, 25);
                 break;
                 
             case Vs:
-                graphics.setColor(getShips().get(0).getColor());
-                graphics.drawString("Hum Lives: " + getShips().get(0).getLives(), 50, 25);
-                graphics.setColor(getShips().get(1).getColor());
-                graphics.drawString("Cpu Lives: " + getShips().get(1).getLives(), 275, 25);
+                graphics.setColor(snapshot.getColor(0));
+                graphics.drawString("Hum Lives: " + snapshot.getLives(0), 50, 25);
+                graphics.setColor(snapshot.getColor(1));
+                graphics.drawString("Cpu Lives: " + snapshot.getLives(1), 275, 25);
                 break;
                 
             case Cooperative:
-                graphics.setColor(getShips().get(0).getColor());
-                graphics.drawString("Hum Lives: " + getShips().get(0).getLives(), 50, 25);
+                graphics.setColor(snapshot.getColor(0));
+                graphics.drawString("Hum Lives: " + snapshot.getLives(0), 50, 25);
                 graphics.setColor(Color.WHITE);
-                graphics.drawString("Level: " + level,                            175, 25);
-                graphics.setColor(getShips().get(1).getColor());
-                graphics.drawString("Cpu Lives: " + getShips().get(1).getLives(), 275, 25);
+                graphics.drawString("Level: " + snapshot.getLevel(),       175, 25);
+                graphics.setColor(snapshot.getColor(1));
+                graphics.drawString("Cpu Lives: " + snapshot.getLives(1), 275, 25);
                 break;
         }
         
+        //show how many objects were created during this level, should stay at 0 once the pools are filled
+        if (Shared.DEBUG)
+        {
+            graphics.setColor(Color.WHITE);
+            graphics.drawString("Pool created: " + snapshot.getPoolCreated(), 25, gameWindow.y + gameWindow.height - 10);
+            
+            //show how many color changes sorting the render commands saved
+            if (Shared.RENDER_COMMANDS)
+                graphics.drawString("Color changes: " + stateChanges + ", unsorted: " + snapshot.getCommands().getUnsortedStateChanges(), 25, gameWindow.y + gameWindow.height - 25);
+        }
+        
         //if the game is over draw notification
-        if (gameOver)
+        if (snapshot.hasGameOver())
         {
             graphics.setColor(Color.RED);
             graphics.drawString("GAME OVER, HIT \"ESC\" TO ACCESS MENU.", 25, 100);
@@ -724,19 +1606,19 @@ public final class Manager implements IManager
             {
                 case Race:
                     
-                    if (getShips().get(0).getKills() > getShips().get(1).getKills())
+                    if (snapshot.getKills(0) > snapshot.getKills(1))
                     {
-                        graphics.setColor(getShips().get(0).getColor());
+                        graphics.setColor(snapshot.getColor(0));
                         graphics.drawString("Human Wins", 25, 75);
                     }
                     
-                    if (getShips().get(0).getKills() < getShips().get(1).getKills())
+                    if (snapshot.getKills(0) < snapshot.getKills(1))
                     {
-                        graphics.setColor(getShips().get(1).getColor());
+                        graphics.setColor(snapshot.getColor(1));
                         graphics.drawString("Cpu Wins", 25, 75);
                     }
                     
-                    if (getShips().get(0).getKills() == getShips().get(1).getKills())
+                    if (snapshot.getKills(0) == snapshot.getKills(1))
                     {
                         graphics.setColor(Color.WHITE);
                         graphics.drawString("DRAW! WOW!!", 25, 75);
@@ -745,19 +1627,188 @@ public final class Manager implements IManager
 
                 case Vs:
                     
-                    if (getShips().get(0).isDead())
+                    if (!shipStates.isAlive(0))
                     {
-                        graphics.setColor(getShips().get(1).getColor());
+                        graphics.setColor(snapshot.getColor(1));
                         graphics.drawString("Cpu Wins", 25, 75);
                     }
                     
-                    if (getShips().get(1).isDead())
+                    if (!shipStates.isAlive(1))
                     {
-                        graphics.setColor(getShips().get(0).getColor());
+                        graphics.setColor(snapshot.getColor(0));
                         graphics.drawString("Human Wins", 25, 75);
                     }
                     break;
             }
         }
     }
+    
+    /**
+     * Draw the meteors, ships and bullets of the snapshot directly from their stores
+     * @param graphics Graphics object used for drawing
+     * @param snapshot The snapshot to draw
+     * @param fraction How far to draw between the previous and current location
+     */
+    private void renderObjects(final Graphics graphics, final WorldSnapshot snapshot, final double fraction)
+    {
+        final RenderStore meteorStates = snapshot.getMeteors();
+        
+        for (int i=0; i < meteorStates.getCount(); i++)
+        {
+            setRenderLocation(meteorStates, i, fraction);
+            
+            if (Shared.SPRITE_ATLAS)
+            {
+                Meteor.getAtlas(meteorStates.getSize(i), Shared.SPRITE_ATLAS_ANGLES).draw(graphics, renderX, renderY, renderAngle);
+            }
+            else
+            {
+                setRenderCoordinates(meteorPolygon, Shape.get(Shape.Type.Meteor, meteorStates.getSize(i)));
+                Meteor.render(graphics, meteorPolygon);
+            }
+        }
+        
+        final RenderStore shipStates = snapshot.getShips();
+        
+        for (int i=0; i < shipStates.getCount(); i++)
+        {
+            //only draw the ship if it is not dead
+            if (shipStates.isAlive(i))
+            {
+                setRenderLocation(shipStates, i, fraction);
+                
+                if (Shared.SPRITE_ATLAS)
+                {
+                    Ship.render(graphics, 
+                        Ship.getAtlas(Shape.Type.ShipThrust, shipStates.getSize(i), snapshot.getColor(i), snapshot.hasInvincibility(i), Shared.SPRITE_ATLAS_ANGLES), 
+                        Ship.getAtlas(Shape.Type.ShipBody,   shipStates.getSize(i), snapshot.getColor(i), snapshot.hasInvincibility(i), Shared.SPRITE_ATLAS_ANGLES), 
+                        renderX, renderY, renderAngle, snapshot.hasSpeeding(i));
+                }
+                else
+                {
+                    setRenderCoordinates(thrustPolygon, Shape.get(Shape.Type.ShipThrust, shipStates.getSize(i)));
+                    setRenderCoordinates(bodyPolygon,   Shape.get(Shape.Type.ShipBody,   shipStates.getSize(i)));
+                    Ship.render(graphics, thrustPolygon, bodyPolygon, snapshot.getColor(i), snapshot.hasSpeeding(i), snapshot.hasInvincibility(i));
+                }
+            }
+        }
+        
+        final RenderStore bulletStates = snapshot.getBullets();
+        
+        for (int i=0; i < bulletStates.getCount(); i++)
+        {
+            setRenderLocation(bulletStates, i, fraction);
+            setRenderCoordinates(bulletPolygon, Shape.get(Shape.Type.Bullet, bulletStates.getSize(i)));
+            Bullet.render(graphics, bulletPolygon, snapshot.getShipColor(bulletStates.getOwner(i)));
+        }
+    }
+    
+    /**
+     * Draw the render commands of the snapshot sorted so each color is only set once per layer
+     * @param graphics Graphics object used for drawing
+     * @param commands The commands to draw
+     * @param fraction How far to draw between the previous and current location
+     */
+    private void renderCommands(final Graphics graphics, final RenderCommands commands, final double fraction)
+    {
+        commands.sort();
+        
+        stateChanges = 0;
+        
+        Color color = null;
+        
+        for (int position = 0; position < commands.getCount(); position++)
+        {
+            final int i = commands.getOrder(position);
+            
+            //only change the color when it is different
+            if (commands.getColor(i) != color)
+            {
+                color = commands.getColor(i);
+                graphics.setColor(color);
+                stateChanges++;
+            }
+            
+            final Polygon polygon = getRenderPolygon(commands.getShape(i));
+            
+            setRenderLocation(commands.getStore(i), commands.getEntity(i), fraction);
+            setRenderCoordinates(polygon, commands.getShape(i));
+            
+            if (commands.hasFill(i))
+            {
+                graphics.fillPolygon(polygon);
+            }
+            else
+            {
+                graphics.drawPolygon(polygon);
+            }
+        }
+    }
+    
+    /**
+     * Get the render polygon with the same number of points as the shape
+     * @param shape The shape being drawn
+     * @return The polygon used for drawing
+     */
+    private Polygon getRenderPolygon(final Shape shape)
+    {
+        switch (shape.getType())
+        {
+            case Meteor:
+                return meteorPolygon;
+                
+            case Bullet:
+                return bulletPolygon;
+                
+            case ShipBody:
+                return bodyPolygon;
+                
+            case ShipThrust:
+            default:
+                return thrustPolygon;
+        }
+    }
+    
+    /**
+     * Get the number of color changes while drawing the last frame from the render commands
+     * @return The count of color changes
+     */
+    public int getStateChanges()
+    {
+        return this.stateChanges;
+    }
+    
+    /**
+     * Set the render location/angle to the stored entity
+     * @param store The store containing the entity
+     * @param index The index of the entity in the store
+     * @param fraction How far to draw between the previous and current location
+     */
+    private void setRenderLocation(final RenderStore store, final int index, final double fraction)
+    {
+        renderX = store.getPreviousX(index) + ((store.getX(index) - store.getPreviousX(index)) * fraction);
+        renderY = store.getPreviousY(index) + ((store.getY(index) - store.getPreviousY(index)) * fraction);
+        
+        //turn the shortest way around the circle
+        double turn = store.getAngle(index) - store.getPreviousAngle(index);
+        
+        if (turn > Math.PI)
+            turn -= (2 * Math.PI);
+        if (turn < -Math.PI)
+            turn += (2 * Math.PI);
+        
+        renderAngle = store.getPreviousAngle(index) + (turn * fraction);
+    }
+    
+    /**
+     * Set the render polygon to the shape at the render location/angle
+     * @param polygon The polygon used for drawing
+     * @param shape The original coordinates
+     */
+    private void setRenderCoordinates(final Polygon polygon, final Shape shape)
+    {
+        renderRotation.update(renderAngle);
+        
+        LevelObject.setCoordinates(polygon, shape, renderX, renderY, renderRotation.getCos(), renderRotation.getSin());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps released objects so they can be re-used instead of creating new ones.<br>
+ * Objects returned from acquire() still contain their previous state and need to be reset by the caller.
+ * @author GOD
+ */
+public abstract class Pool<T extends Disposable> implements Disposable
+{
+    //the objects available to be re-used
+    private List<T> available;
+
+    //how many objects this pool has created
+    private int created = 0;
+
+    public Pool()
+    {
+        this.available = new ArrayList<>();
+    }
+
+    /**
+     * Create a new object when none are available
+     * @return The new object
+     */
+    protected abstract T create();
+
+    /**
+     * Get an object from the pool, a new object is only created if none are available
+     * @return The object
+     */
+    public T acquire()
+    {
+        if (available.isEmpty())
+        {
+            created++;
+            return create();
+        }
+
+        return available.remove(available.size() - 1);
+    }
+
+    /**
+     * Return the object to the pool so it can be re-used
+     * @param object The object no longer in use
+     */
+    public void release(final T object)
+    {
+        available.add(object);
+    }
+
+    /**
+     * Get the number of objects this pool has created
+     * @return The count of objects created
+     */
+    public int getCreated()
+    {
+        return this.created;
+    }
+
+    @Override
+    public void dispose()
+    {
+        for (T object : available)
+        {
+            object.dispose();
+        }
+
+        available.clear();
+        available = null;
+    }
+}
\ No newline at end of file
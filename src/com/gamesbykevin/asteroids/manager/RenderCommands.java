@@ -0,0 +1,253 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.asteroids.levelobject.Shape;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A list of polygons to draw, filled by the game thread when a snapshot is published.<br>
+ * Each command is a shape, the entity in the snapshot it is drawn at, a color and if it is filled or outlined.
+ * Before drawing, the commands are sorted so every command with the same color is drawn together,
+ * which keeps the number of color changes low. The arrays are kept and re-used so no objects are created once they are big enough.
+ * @author GOD
+ */
+public final class RenderCommands
+{
+    /**
+     * The groups of commands, every command in a group is drawn above the groups before it
+     */
+    public enum Layer
+    {
+        Meteors, Thrust, Body, Bullets
+    }
+
+    //the number of layers, stored so the values don't need to be copied
+    private static final int LAYERS = Layer.values().length;
+
+    //the default number of commands the arrays can hold before growing
+    private static final int DEFAULT_CAPACITY = 128;
+
+    //the number of commands
+    private int count = 0;
+
+    //the shape of each command
+    private Shape[] shapes;
+
+    //the store and index of the entity each command is drawn at
+    private RenderStore[] stores;
+    private int[] entities;
+
+    //the layer and the index of the color in the palette of each command
+    private int[] layers, colors;
+
+    //is each command filled, otherwise only the outline is drawn
+    private boolean[] fills;
+
+    //every color used so far, the index of a color does not change so the palette is kept between frames
+    private Color[] palette = new Color[8];
+    private int paletteCount = 0;
+
+    //the commands in the order they are drawn
+    private int[] order;
+
+    //the first position in the order of each sort key
+    private int[] starts = new int[0];
+
+    //have the commands been sorted since the last one was added
+    private boolean sorted = false;
+
+    //the number of color changes if the commands were drawn in the order they were added
+    private int unsortedStateChanges = 0;
+
+    public RenderCommands()
+    {
+        this.shapes   = new Shape[DEFAULT_CAPACITY];
+        this.stores   = new RenderStore[DEFAULT_CAPACITY];
+        this.entities = new int[DEFAULT_CAPACITY];
+        this.layers   = new int[DEFAULT_CAPACITY];
+        this.colors   = new int[DEFAULT_CAPACITY];
+        this.fills    = new boolean[DEFAULT_CAPACITY];
+        this.order    = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Remove all commands, the arrays are kept so they can be re-used
+     */
+    public void clear()
+    {
+        //don't keep references to the shapes and stores of the previous frame
+        Arrays.fill(shapes, 0, count, null);
+        Arrays.fill(stores, 0, count, null);
+
+        this.count = 0;
+        this.sorted = false;
+    }
+
+    /**
+     * Add a command to the end of the list
+     * @param layer The group the command is drawn in
+     * @param shape The shape to draw
+     * @param store The store containing the entity the shape is drawn at
+     * @param entity The index of the entity in the store
+     * @param color The color to draw with
+     * @param fill true to fill the shape, false to only draw the outline
+     */
+    public void add(final Layer layer, final Shape shape, final RenderStore store, final int entity, final Color color, final boolean fill)
+    {
+        //make sure there is room
+        if (count == shapes.length)
+            grow();
+
+        shapes[count]   = shape;
+        stores[count]   = store;
+        entities[count] = entity;
+        layers[count]   = layer.ordinal();
+        colors[count]   = getPaletteIndex(color);
+        fills[count]    = fill;
+
+        count++;
+        sorted = false;
+    }
+
+    /**
+     * Get the index of the color in the palette, the color is added if it is not found
+     * @param color The color
+     * @return The index of the color
+     */
+    private int getPaletteIndex(final Color color)
+    {
+        for (int i=0; i < paletteCount; i++)
+        {
+            if (palette[i].equals(color))
+                return i;
+        }
+
+        if (paletteCount == palette.length)
+            palette = Arrays.copyOf(palette, palette.length * 2);
+
+        palette[paletteCount] = color;
+
+        return paletteCount++;
+    }
+
+    /**
+     * Double the capacity of every array
+     */
+    private void grow()
+    {
+        final int capacity = shapes.length * 2;
+
+        shapes   = Arrays.copyOf(shapes, capacity);
+        stores   = Arrays.copyOf(stores, capacity);
+        entities = Arrays.copyOf(entities, capacity);
+        layers   = Arrays.copyOf(layers, capacity);
+        colors   = Arrays.copyOf(colors, capacity);
+        fills    = Arrays.copyOf(fills, capacity);
+        order    = Arrays.copyOf(order, capacity);
+    }
+
+    /**
+     * Sort the commands by layer, then color, then filled before outlined.<br>
+     * Commands with the same state keep the order they were added in, so the sort can be done in 1 pass by counting each key.
+     */
+    public void sort()
+    {
+        if (sorted)
+            return;
+
+        final int keys = LAYERS * paletteCount * 2;
+
+        if (starts.length < keys + 1)
+            starts = new int[keys + 1];
+
+        Arrays.fill(starts, 0, keys + 1, 0);
+
+        unsortedStateChanges = 0;
+
+        //count the commands with each key
+        for (int i=0; i < count; i++)
+        {
+            starts[getKey(i) + 1]++;
+
+            if (i == 0 || colors[i] != colors[i - 1])
+                unsortedStateChanges++;
+        }
+
+        //each key starts after all of the smaller keys
+        for (int key = 0; key < keys; key++)
+        {
+            starts[key + 1] += starts[key];
+        }
+
+        for (int i=0; i < count; i++)
+        {
+            order[starts[getKey(i)]++] = i;
+        }
+
+        sorted = true;
+    }
+
+    /**
+     * Get the sort key of the command
+     * @param index The index of the command
+     * @return The key, smaller keys are drawn first
+     */
+    private int getKey(final int index)
+    {
+        return (((layers[index] * paletteCount) + colors[index]) * 2) + ((fills[index]) ? 0 : 1);
+    }
+
+    /**
+     * Get the number of commands
+     * @return The count of commands
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Get the command drawn at the position, only valid after sort() is called
+     * @param position The position in the drawing order
+     * @return The index of the command
+     */
+    public int getOrder(final int position)
+    {
+        return this.order[position];
+    }
+
+    public Shape getShape(final int index)
+    {
+        return this.shapes[index];
+    }
+
+    public RenderStore getStore(final int index)
+    {
+        return this.stores[index];
+    }
+
+    public int getEntity(final int index)
+    {
+        return this.entities[index];
+    }
+
+    public Color getColor(final int index)
+    {
+        return this.palette[colors[index]];
+    }
+
+    public boolean hasFill(final int index)
+    {
+        return this.fills[index];
+    }
+
+    /**
+     * Get the number of color changes needed to draw the commands in the order they were added, only valid after sort() is called
+     * @return The count of color changes
+     */
+    public int getUnsortedStateChanges()
+    {
+        return this.unsortedStateChanges;
+    }
+}
\ No newline at end of file
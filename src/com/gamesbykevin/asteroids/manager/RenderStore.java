@@ -0,0 +1,179 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.asteroids.levelobject.LevelObject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of what the renderer needs to draw many level objects, packed into primitive arrays.<br>
+ * The game still updates the objects themselves, a snapshot loads a copy of them after each update
+ * so the renderer never touches the live objects. The arrays are re-used every time the store is loaded.
+ * @author GOD
+ */
+public final class RenderStore
+{
+    //the default number of entities the arrays can hold before growing
+    private static final int DEFAULT_CAPACITY = 64;
+
+    //the number of entities stored
+    private int count = 0;
+
+    //location
+    private double[] x, y;
+
+    //the facing angle in radians
+    private double[] angle;
+
+    //the location and angle before the last update
+    private double[] previousX, previousY, previousAngle;
+
+    //the size of each entity
+    private int[] size;
+
+    //is the entity still alive
+    private boolean[] alive;
+
+    //the id of the object the entity came from
+    private long[] owner;
+
+    public RenderStore()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a store with room for the specified number of entities
+     * @param capacity The initial capacity
+     */
+    public RenderStore(final int capacity)
+    {
+        this.x         = new double[capacity];
+        this.y         = new double[capacity];
+        this.angle     = new double[capacity];
+        this.previousX     = new double[capacity];
+        this.previousY     = new double[capacity];
+        this.previousAngle = new double[capacity];
+        this.size      = new int[capacity];
+        this.alive     = new boolean[capacity];
+        this.owner     = new long[capacity];
+    }
+
+    /**
+     * Remove all entities, the arrays are kept so they can be re-used
+     */
+    public void clear()
+    {
+        this.count = 0;
+    }
+
+    /**
+     * Clear the store and add every object in the list
+     * @param objects The objects to store
+     */
+    public void load(final List<? extends LevelObject> objects)
+    {
+        clear();
+
+        for (int i=0; i < objects.size(); i++)
+        {
+            add(objects.get(i));
+        }
+    }
+
+    /**
+     * Add the state of the object to the end of the store
+     * @param object The object to add
+     * @return The index of the stored entity
+     */
+    public int add(final LevelObject object)
+    {
+        //make sure there is room
+        if (count == x.length)
+            grow();
+
+        x[count]         = object.getX();
+        y[count]         = object.getY();
+        angle[count]     = object.getAngle();
+        previousX[count]     = object.getPreviousX();
+        previousY[count]     = object.getPreviousY();
+        previousAngle[count] = object.getPreviousAngle();
+        size[count]      = object.getSize();
+        alive[count]     = !object.isDead();
+        owner[count]     = object.getParentId();
+
+        return count++;
+    }
+
+    /**
+     * Double the capacity of every array
+     */
+    private void grow()
+    {
+        final int capacity = x.length * 2;
+
+        x         = Arrays.copyOf(x, capacity);
+        y         = Arrays.copyOf(y, capacity);
+        angle     = Arrays.copyOf(angle, capacity);
+        previousX     = Arrays.copyOf(previousX, capacity);
+        previousY     = Arrays.copyOf(previousY, capacity);
+        previousAngle = Arrays.copyOf(previousAngle, capacity);
+        size      = Arrays.copyOf(size, capacity);
+        alive     = Arrays.copyOf(alive, capacity);
+        owner     = Arrays.copyOf(owner, capacity);
+    }
+
+    /**
+     * Get the number of entities stored
+     * @return The count of entities
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    public double getX(final int index)
+    {
+        return this.x[index];
+    }
+
+    public double getY(final int index)
+    {
+        return this.y[index];
+    }
+
+    public double getAngle(final int index)
+    {
+        return this.angle[index];
+    }
+
+    public double getPreviousX(final int index)
+    {
+        return this.previousX[index];
+    }
+
+    public double getPreviousY(final int index)
+    {
+        return this.previousY[index];
+    }
+
+    public double getPreviousAngle(final int index)
+    {
+        return this.previousAngle[index];
+    }
+
+    public int getSize(final int index)
+    {
+        return this.size[index];
+    }
+
+    public boolean isAlive(final int index)
+    {
+        return this.alive[index];
+    }
+
+    public long getOwner(final int index)
+    {
+        return this.owner[index];
+    }
+}
\ No newline at end of file
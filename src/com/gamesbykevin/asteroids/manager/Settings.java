@@ -0,0 +1,177 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.framework.menu.Menu;
+
+import com.gamesbykevin.asteroids.menu.CustomMenu.LayerKey;
+import com.gamesbykevin.asteroids.menu.CustomMenu.OptionKey;
+import com.gamesbykevin.asteroids.menu.option.Difficulty;
+import com.gamesbykevin.asteroids.menu.option.Lives;
+import com.gamesbykevin.asteroids.menu.option.Mode;
+import com.gamesbykevin.asteroids.menu.option.OpponentDifficulty;
+import com.gamesbykevin.asteroids.ship.CpuTuning;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The options a game is created with.<br>
+ * When playing these come from the menu, without a menu they can be set directly.
+ * @author GOD
+ */
+public final class Settings
+{
+    //the game mode we are playing
+    private final Mode.Selections mode;
+
+    //the games difficulty
+    private final Difficulty.Selections difficulty;
+
+    //the lives each player should have
+    private final Lives.Selections lives;
+
+    //how often the cpu decides what to do
+    private final OpponentDifficulty.Selections opponentDifficulty;
+
+    //how the cpu playing as the first player plays, null when a human is playing
+    private final CpuTuning playerTuning;
+
+    //how the cpu opponent plays
+    private final CpuTuning opponentTuning;
+
+    /**
+     * Create the settings with the default opponent difficulty
+     * @param mode The game mode
+     * @param difficulty The game difficulty
+     * @param lives The starting lives
+     */
+    public Settings(final Mode.Selections mode, final Difficulty.Selections difficulty, final Lives.Selections lives)
+    {
+        this(mode, difficulty, lives, OpponentDifficulty.Selections.Medium);
+    }
+
+    /**
+     * Create the settings
+     * @param mode The game mode
+     * @param difficulty The game difficulty
+     * @param lives The starting lives
+     * @param opponentDifficulty How often the cpu decides what to do
+     */
+    public Settings(final Mode.Selections mode, final Difficulty.Selections difficulty, final Lives.Selections lives, final OpponentDifficulty.Selections opponentDifficulty)
+    {
+        this(mode, difficulty, lives, opponentDifficulty, null, CpuTuning.DEFAULT);
+    }
+
+    /**
+     * Create the settings where the first player may also be played by the cpu
+     * @param mode The game mode
+     * @param difficulty The game difficulty
+     * @param lives The starting lives
+     * @param opponentDifficulty How often the cpu decides what to do
+     * @param playerTuning How the cpu playing as the first player plays, null for a human player
+     * @param opponentTuning How the cpu opponent plays
+     */
+    public Settings(final Mode.Selections mode, final Difficulty.Selections difficulty, final Lives.Selections lives, final OpponentDifficulty.Selections opponentDifficulty, final CpuTuning playerTuning, final CpuTuning opponentTuning)
+    {
+        this.mode = mode;
+        this.difficulty = difficulty;
+        this.lives = lives;
+        this.opponentDifficulty = opponentDifficulty;
+        this.playerTuning = playerTuning;
+        this.opponentTuning = opponentTuning;
+    }
+
+    /**
+     * Create the settings from the options currently selected in the menu
+     * @param menu The menu containing the options
+     * @throws Exception
+     */
+    public Settings(final Menu menu) throws Exception
+    {
+        this(
+            Mode.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Mode)],
+            Difficulty.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Difficulty)],
+            Lives.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.Lives)],
+            OpponentDifficulty.Selections.values()[menu.getOptionSelectionIndex(LayerKey.Options, OptionKey.OpponentDifficulty)]);
+    }
+
+    /**
+     * Read the settings written by write()
+     * @param in Where the settings are read from
+     * @return The settings
+     * @throws IOException 
+     */
+    public static Settings read(final DataInput in) throws IOException
+    {
+        return new Settings(
+            Mode.Selections.values()[in.readUnsignedByte()],
+            Difficulty.Selections.values()[in.readUnsignedByte()],
+            Lives.Selections.values()[in.readUnsignedByte()],
+            OpponentDifficulty.Selections.values()[in.readUnsignedByte()],
+            (in.readBoolean()) ? CpuTuning.read(in) : null,
+            CpuTuning.read(in));
+    }
+
+    /**
+     * Write each selection as 1 byte followed by the cpu tuning
+     * @param out Where the settings are written
+     * @throws IOException 
+     */
+    public void write(final DataOutput out) throws IOException
+    {
+        out.writeByte(mode.ordinal());
+        out.writeByte(difficulty.ordinal());
+        out.writeByte(lives.ordinal());
+        out.writeByte(opponentDifficulty.ordinal());
+        out.writeBoolean(playerTuning != null);
+
+        if (playerTuning != null)
+            playerTuning.write(out);
+
+        opponentTuning.write(out);
+    }
+
+    /**
+     * Do the settings have the same options that can be selected in the menu, the cpu tuning is not compared
+     * @param settings The settings to compare
+     * @return true if the mode, difficulty, lives and opponent difficulty are the same, false otherwise
+     */
+    public boolean hasSameSelections(final Settings settings)
+    {
+        return (mode == settings.mode && difficulty == settings.difficulty && lives == settings.lives && opponentDifficulty == settings.opponentDifficulty);
+    }
+
+    public Mode.Selections getMode()
+    {
+        return this.mode;
+    }
+
+    public Difficulty.Selections getDifficulty()
+    {
+        return this.difficulty;
+    }
+
+    public Lives.Selections getLives()
+    {
+        return this.lives;
+    }
+
+    public OpponentDifficulty.Selections getOpponentDifficulty()
+    {
+        return this.opponentDifficulty;
+    }
+
+    /**
+     * Get how the cpu playing as the first player plays
+     * @return The tuning, null when a human is playing
+     */
+    public CpuTuning getPlayerTuning()
+    {
+        return this.playerTuning;
+    }
+
+    public CpuTuning getOpponentTuning()
+    {
+        return this.opponentTuning;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.gamesbykevin.asteroids.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple buffer passing world snapshots from the update thread to the render thread without locking.<br>
+ * The writer always has its own snapshot to fill and the reader always has its own snapshot to draw,
+ * the third snapshot holds the latest one published.
+ * @author GOD
+ */
+public final class SnapshotBuffer
+{
+    //flag added to the middle index when it holds a snapshot the reader has not seen yet
+    private static final int FRESH = 4;
+
+    //used to get the index without the flag
+    private static final int INDEX_MASK = 3;
+
+    //the three snapshots
+    private final WorldSnapshot[] snapshots;
+
+    //the snapshot being filled by the writer
+    private int back = 0;
+
+    //the latest published snapshot
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    //the snapshot being drawn by the reader
+    private int front = 2;
+
+    public SnapshotBuffer()
+    {
+        this.snapshots = new WorldSnapshot[]{new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+    }
+
+    /**
+     * Get the snapshot to fill, only called by the update thread
+     * @return The back snapshot
+     */
+    public WorldSnapshot getBack()
+    {
+        return snapshots[back];
+    }
+
+    /**
+     * Publish the back snapshot as the latest, only called by the update thread
+     */
+    public void publish()
+    {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Get the latest published snapshot, only called by the render thread
+     * @return The front snapshot
+     */
+    public WorldSnapshot getFront()
+    {
+        if ((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & INDEX_MASK;
+
+        return snapshots[front];
+    }
+}
\ No newline at end of file
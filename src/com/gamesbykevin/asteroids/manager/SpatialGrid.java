@@ -0,0 +1,296 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import com.gamesbykevin.asteroids.levelobject.LevelObject;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform spatial hash grid used as the collision broad-phase.<br>
+ * The game window is split into square cells and every object is stored in the cell containing its center.
+ * As long as the cell size is at least the width of the largest object,
+ * anything that can collide with an object will be found in the 3 x 3 block of cells around it.
+ * The grid also answers distance queries by only visiting the cells a search radius can reach.
+ * @author GOD
+ */
+public final class SpatialGrid<T extends LevelObject> implements Disposable
+{
+    //the area covered by the grid
+    private final Rectangle area;
+
+    //the width/height of each cell in pixels
+    private final int cellSize;
+
+    //the number of columns and rows in the grid
+    private final int columns, rows;
+
+    //the objects in each cell, stored row by row
+    private List<List<T>> cells;
+
+    //the distance of each object in the nearest results, re-used by every query
+    private double[] distances = new double[0];
+
+    /**
+     * Create a new grid covering the specified area
+     * @param area The area where game play will occur
+     * @param cellSize The size of each cell in pixels, should be at least the width of the largest object
+     */
+    public SpatialGrid(final Rectangle area, final int cellSize)
+    {
+        this.area = new Rectangle(area);
+        this.cellSize = cellSize;
+
+        //make sure the entire area is covered
+        this.columns = Math.max(1, (int)Math.ceil((double)area.width  / cellSize));
+        this.rows    = Math.max(1, (int)Math.ceil((double)area.height / cellSize));
+
+        this.cells = new ArrayList<>(columns * rows);
+
+        for (int i=0; i < columns * rows; i++)
+        {
+            this.cells.add(new ArrayList<T>());
+        }
+    }
+
+    /**
+     * Get the number of cells in the grid
+     * @return The columns multiplied by the rows
+     */
+    public int getCellCount()
+    {
+        return cells.size();
+    }
+
+    /**
+     * Get the objects stored in the cell, cells are numbered row by row
+     * @param index The index of the cell
+     * @return List of objects in the cell, should not be changed
+     */
+    public List<T> getCell(final int index)
+    {
+        return cells.get(index);
+    }
+
+    /**
+     * Remove all objects from every cell
+     */
+    public void clear()
+    {
+        for (int i=0; i < cells.size(); i++)
+        {
+            cells.get(i).clear();
+        }
+    }
+
+    /**
+     * Clear the grid and add every object in the list
+     * @param objects The objects to place in the grid
+     */
+    public void rebuild(final List<T> objects)
+    {
+        clear();
+
+        for (int i=0; i < objects.size(); i++)
+        {
+            add(objects.get(i));
+        }
+    }
+
+    /**
+     * Add the object to the cell containing its center
+     * @param object The object we want to add
+     */
+    public void add(final T object)
+    {
+        cells.get((getRow(object.getY()) * columns) + getColumn(object.getX())).add(object);
+    }
+
+    /**
+     * Get all objects stored in the 3 x 3 block of cells surrounding the object.<br>
+     * The object itself will be included in the results if it is stored in the grid.
+     * @param object The object we are checking
+     * @param results List the objects will be added to, it will be cleared first
+     * @return The results list
+     */
+    public List<T> getNeighbors(final LevelObject object, final List<T> results)
+    {
+        results.clear();
+
+        final int column = getColumn(object.getX());
+        final int row    = getRow(object.getY());
+
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++)
+        {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++)
+            {
+                final List<T> cell = cells.get((r * columns) + c);
+
+                //add one at a time, addAll() copies the cell into a new array
+                for (int i=0; i < cell.size(); i++)
+                {
+                    results.add(cell.get(i));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Get all objects within the distance of the location
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param radius The distance from the location
+     * @param results List the objects will be added to, it will be cleared first
+     * @return The results list
+     */
+    public List<T> getWithin(final double x, final double y, final double radius, final List<T> results)
+    {
+        results.clear();
+
+        //only the cells overlapping the square around the circle can contain results
+        final int columnStart = getColumn(x - radius), columnEnd = getColumn(x + radius);
+        final int rowStart    = getRow(y - radius),    rowEnd    = getRow(y + radius);
+
+        for (int r = rowStart; r <= rowEnd; r++)
+        {
+            for (int c = columnStart; c <= columnEnd; c++)
+            {
+                final List<T> cell = cells.get((r * columns) + c);
+
+                for (int i=0; i < cell.size(); i++)
+                {
+                    if (getDistance(cell.get(i), x, y) <= radius)
+                        results.add(cell.get(i));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Get the objects closest to the location, sorted from closest to farthest.<br>
+     * The search starts at the cell containing the location and moves out 1 ring of cells at a time,
+     * stopping once no object in the next ring can be closer than the ones already found.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param count The number of objects we want
+     * @param results List the objects will be added to, it will be cleared first
+     * @return The results list, containing fewer objects only if the grid does not have enough
+     */
+    public List<T> getNearest(final double x, final double y, final int count, final List<T> results)
+    {
+        results.clear();
+
+        if (count <= 0)
+            return results;
+
+        if (distances.length < count)
+            distances = new double[count];
+
+        final int column = getColumn(x);
+        final int row    = getRow(y);
+
+        for (int ring = 0; ring < Math.max(columns, rows); ring++)
+        {
+            for (int r = Math.max(0, row - ring); r <= Math.min(rows - 1, row + ring); r++)
+            {
+                //only the cells on the edge of the ring have not been visited, the first and last rows are entirely on the edge
+                final int step = (Math.abs(r - row) == ring) ? 1 : Math.max(1, ring * 2);
+
+                for (int c = column - ring; c <= column + ring; c += step)
+                {
+                    if (c < 0 || c >= columns)
+                        continue;
+
+                    final List<T> cell = cells.get((r * columns) + c);
+
+                    for (int i=0; i < cell.size(); i++)
+                    {
+                        addNearest(cell.get(i), getDistance(cell.get(i), x, y), count, results);
+                    }
+                }
+            }
+
+            //every cell in the next ring is at least this far from the location
+            if (results.size() == count && distances[count - 1] <= ring * cellSize)
+                break;
+        }
+
+        return results;
+    }
+
+    /**
+     * Insert the object into the sorted results if it is one of the closest found so far
+     * @param object The object
+     * @param distance The distance of the object from the location
+     * @param count The maximum number of results
+     * @param results The closest objects, sorted by the matching distances
+     */
+    private void addNearest(final T object, final double distance, final int count, final List<T> results)
+    {
+        //the results are full and this object is not closer than any of them
+        if (results.size() == count && distance >= distances[count - 1])
+            return;
+
+        //drop the farthest to make room
+        if (results.size() == count)
+            results.remove(count - 1);
+
+        //shift the farther distances down until we find where this object belongs
+        int index = results.size();
+
+        while (index > 0 && distances[index - 1] > distance)
+        {
+            distances[index] = distances[index - 1];
+            index--;
+        }
+
+        distances[index] = distance;
+        results.add(index, object);
+    }
+
+    /**
+     * Get the distance between the object and the location
+     * @param object The object
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return The distance in pixels
+     */
+    private static double getDistance(final LevelObject object, final double x, final double y)
+    {
+        return Math.sqrt(((object.getX() - x) * (object.getX() - x)) + ((object.getY() - y) * (object.getY() - y)));
+    }
+
+    /**
+     * Get the column for the x-coordinate, anything outside the area will be placed in the closest column
+     * @param x x-coordinate
+     * @return The column
+     */
+    private int getColumn(final double x)
+    {
+        return Math.max(0, Math.min(columns - 1, (int)((x - area.x) / cellSize)));
+    }
+
+    /**
+     * Get the row for the y-coordinate, anything outside the area will be placed in the closest row
+     * @param y y-coordinate
+     * @return The row
+     */
+    private int getRow(final double y)
+    {
+        return Math.max(0, Math.min(rows - 1, (int)((y - area.y) / cellSize)));
+    }
+
+    @Override
+    public void dispose()
+    {
+        clear();
+        cells.clear();
+        cells = null;
+    }
+}
\ No newline at end of file
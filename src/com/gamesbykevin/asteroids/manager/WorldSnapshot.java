@@ -0,0 +1,223 @@
+package com.gamesbykevin.asteroids.manager;
+
+import com.gamesbykevin.asteroids.bullet.Bullet;
+import com.gamesbykevin.asteroids.meteor.Meteor;
+import com.gamesbykevin.asteroids.shared.Shared;
+import com.gamesbykevin.asteroids.ship.Ship;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Copy of everything needed to draw the game at the end of an update.<br>
+ * Once published the renderer only reads the snapshot so it never touches the live game objects.
+ * @author GOD
+ */
+public final class WorldSnapshot
+{
+    //the transforms of the meteors, bullets and ships
+    private final RenderStore meteors;
+    private final RenderStore bullets;
+    private final RenderStore ships;
+
+    //the ship details that are not part of the store
+    private long[] shipIds = new long[0];
+    private Color[] shipColors = new Color[0];
+    private boolean[] shipSpeeding = new boolean[0];
+    private boolean[] shipInvincible = new boolean[0];
+    private int[] shipLives = new int[0];
+    private int[] shipKills = new int[0];
+
+    //the level we are on
+    private int level = 0;
+
+    //has the game ended
+    private boolean gameOver = false;
+
+    //the nanoseconds remaining for race mode, 0 if there is no timer
+    private long timeRemaining = 0;
+
+    //the number of bullets and meteors the pools created during this level, other allocations are not counted
+    private int poolCreated = 0;
+
+    //has anything been loaded yet
+    private boolean empty = true;
+
+    //the polygons to draw, only filled if enabled in Shared
+    private final RenderCommands commands;
+
+    public WorldSnapshot()
+    {
+        this.meteors = new RenderStore();
+        this.bullets = new RenderStore();
+        this.ships   = new RenderStore();
+        this.commands = new RenderCommands();
+    }
+
+    /**
+     * Copy the current state of the game
+     * @param manager The manager containing the game elements
+     */
+    public void load(final Manager manager)
+    {
+        meteors.load(manager.getMeteors());
+        bullets.load(manager.getBullets());
+
+        final List<Ship> tmp = manager.getShips();
+
+        //the number of ships doesn't change during a game so this only happens once
+        if (shipIds.length != tmp.size())
+        {
+            shipIds        = new long[tmp.size()];
+            shipColors     = new Color[tmp.size()];
+            shipSpeeding   = new boolean[tmp.size()];
+            shipInvincible = new boolean[tmp.size()];
+            shipLives      = new int[tmp.size()];
+            shipKills      = new int[tmp.size()];
+        }
+
+        ships.clear();
+
+        for (int i=0; i < tmp.size(); i++)
+        {
+            final Ship ship = tmp.get(i);
+
+            ships.add(ship);
+
+            shipIds[i]        = ship.getId();
+            shipColors[i]     = ship.getColor();
+            shipSpeeding[i]   = ship.hasSpeeding();
+            shipInvincible[i] = ship.hasInvincibility();
+            shipLives[i]      = ship.getLives();
+            shipKills[i]      = ship.getKills();
+        }
+
+        this.level = manager.getLevel();
+        this.gameOver = manager.hasGameOver();
+        this.timeRemaining = (manager.getTimer() != null) ? manager.getTimer().getRemaining() : 0;
+        this.poolCreated = manager.getLevelPoolCreated();
+        this.empty = false;
+
+        if (Shared.RENDER_COMMANDS)
+            loadCommands();
+    }
+
+    /**
+     * Fill the commands to draw every meteor, ship and bullet in the snapshot
+     */
+    private void loadCommands()
+    {
+        commands.clear();
+
+        for (int i=0; i < meteors.getCount(); i++)
+        {
+            Meteor.addCommands(commands, meteors, i);
+        }
+
+        for (int i=0; i < ships.getCount(); i++)
+        {
+            //only draw the ship if it is not dead
+            if (ships.isAlive(i))
+                Ship.addCommands(commands, ships, i, shipColors[i], shipSpeeding[i], shipInvincible[i]);
+        }
+
+        for (int i=0; i < bullets.getCount(); i++)
+        {
+            Bullet.addCommands(commands, bullets, i, getShipColor(bullets.getOwner(i)));
+        }
+    }
+
+    /**
+     * Get the polygons to draw, only filled if enabled in Shared
+     * @return The commands in the order they were added
+     */
+    public RenderCommands getCommands()
+    {
+        return this.commands;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.empty;
+    }
+
+    public RenderStore getMeteors()
+    {
+        return this.meteors;
+    }
+
+    public RenderStore getBullets()
+    {
+        return this.bullets;
+    }
+
+    /**
+     * Get the ship transforms, a ship is alive if it is not dead
+     * @return The ship store
+     */
+    public RenderStore getShips()
+    {
+        return this.ships;
+    }
+
+    /**
+     * Get the color of the ship with the id, used to draw the bullets it fired
+     * @param id The id of the ship
+     * @return The ship color, white if the ship was not found
+     */
+    public Color getShipColor(final long id)
+    {
+        for (int i=0; i < ships.getCount(); i++)
+        {
+            if (shipIds[i] == id)
+                return shipColors[i];
+        }
+
+        return Color.WHITE;
+    }
+
+    public Color getColor(final int index)
+    {
+        return this.shipColors[index];
+    }
+
+    public boolean hasSpeeding(final int index)
+    {
+        return this.shipSpeeding[index];
+    }
+
+    public boolean hasInvincibility(final int index)
+    {
+        return this.shipInvincible[index];
+    }
+
+    public int getLives(final int index)
+    {
+        return this.shipLives[index];
+    }
+
+    public int getKills(final int index)
+    {
+        return this.shipKills[index];
+    }
+
+    public int getLevel()
+    {
+        return this.level;
+    }
+
+    public boolean hasGameOver()
+    {
+        return this.gameOver;
+    }
+
+    public int getPoolCreated()
+    {
+        return this.poolCreated;
+    }
+
+    public long getTimeRemaining()
+    {
+        return this.timeRemaining;
+    }
+}
\ No newline at end of file
@@ -31,7 +31,7 @@ public final class CustomMenu extends Menu implements IElement
         Sound, FullScreen, StartGame, Options, Controls, Instructions, Credits, GoBack, Resume, 
         NewGame, ExitGame, NewGameConfim, NewGameDeny, ExitGameConfirm, ExitGameDeny, 
         
-        Difficulty, Lives, Mode,
+        Difficulty, Lives, Mode, OpponentDifficulty,
     }
     
     //unique key to indentify each Layer
@@ -43,6 +43,7 @@ public final class Options extends Layer implements LayerRules
         super.add(OptionKey.Difficulty, new Difficulty(audio));
         super.add(OptionKey.Lives,      new Lives(audio));
         super.add(OptionKey.Mode,       new Mode(audio));
+        super.add(OptionKey.OpponentDifficulty, new OpponentDifficulty(audio));
         
         super.add(OptionKey.FullScreen,             new FullScreen(audio));
         super.add(OptionKey.GoBack,                 new OptionsGoBack());
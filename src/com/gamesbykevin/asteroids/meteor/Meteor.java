@@ -2,17 +2,25 @@ package com.gamesbykevin.asteroids.meteor;
 
 import com.gamesbykevin.asteroids.engine.Engine;
 import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.levelobject.Shape;
+import com.gamesbykevin.asteroids.levelobject.ShapeAtlas;
+import com.gamesbykevin.asteroids.manager.RenderStore;
+import com.gamesbykevin.asteroids.manager.RenderCommands;
 import com.gamesbykevin.asteroids.shared.IElement;
 
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
 
 public final class Meteor extends LevelObject implements IElement
 {
-    //how big the initial meteor is
-    private static final int START_SIZE = 30;
+    //how big the initial meteor is, meteors only get smaller so this is also the largest size
+    public static final int START_SIZE = 30;
     
     //how many hits before the meteor is destroyed
     private int hits;
@@ -27,15 +35,44 @@ public final class Meteor extends LevelObject implements IElement
     //the rate at which we can turn
     private final double TURN_RATE = .1;
     
+    //the colors a meteor is drawn with
+    private static final Color FILL_COLOR = Color.LIGHT_GRAY;
+    private static final Color OUTLINE_COLOR = Color.ORANGE;
+    
     private Boolean rotateClockwise;
     
-    public Meteor(final double x, final double y, final Random random)
+    //the position of the meteor in the manager's list, set at the start of every update
+    private int index = 0;
+    
+    //the number of meteors hit during the current update and the total of their velocities before the update
+    private int collisions = 0;
+    private double collisionVelocityX = 0, collisionVelocityY = 0;
+    
+    /**
+     * Create a new meteor, reset() needs to be called before the meteor is used
+     */
+    public Meteor()
     {
-        this(x, y, getRandomVelocity(random), getRandomDirection(random), START_SIZE, START_HITS);
+        //call parent constructor
+        super(START_SIZE);
+        
+        //add body
+        super.add(Shape.get(Shape.Type.Meteor, START_SIZE));
     }
     
     /**
-     * Create a new meteor with the specified information
+     * Reset the meteor to the starting size with a random speed and direction
+     * @param x x-coordinate location
+     * @param y y-coordinate location
+     * @param random Object used to make random decisions
+     */
+    public void reset(final double x, final double y, final Random random)
+    {
+        reset(x, y, getRandomVelocity(random), getRandomDirection(random), START_SIZE, START_HITS);
+    }
+    
+    /**
+     * Reset the meteor with the specified information
      * @param x x-coordinate location
      * @param y y-coordinate location
      * @param v Random velocity
@@ -43,10 +80,17 @@ public final class Meteor extends LevelObject implements IElement
      * @param size The size of the meteor
      * @param hits How many more hits does this meteor have
      */
-    public Meteor(final double x, final double y, final double v, final double d, final int size, final int hits)
+    public void reset(final double x, final double y, final double v, final double d, final int size, final int hits)
     {
-        //call parent constructor
-        super(size);
+        //the meteor may have been used before
+        super.unmarkDead();
+        super.resetVelocity();
+        super.setAngle(0);
+        super.setParentId(0);
+        this.rotateClockwise = null;
+        
+        //set the size and the matching body
+        setSize(size);
         
         //set how many hits are left for this meteor
         this.hits = hits;
@@ -54,16 +98,15 @@ public final class Meteor extends LevelObject implements IElement
         //pick a random location
         super.setLocation(x, y);
         
+        //update the body for the new location
+        updateCoordinates(null);
+        
+        //the meteor was placed here so it will not be drawn moving from the previous location
+        super.resetPrevious();
+        
         //set random speed in random direction
         super.setVelocityX(v * Math.cos(d));
         super.setVelocityY(v * Math.sin(d));
-        
-        //set original coordinates for the body
-        final int[] xpoints = {-getSize(), 0, getSize(), getSize(), 0, -getSize()};
-        final int[] ypoints = {-getSize(), (int)(-getSize() * 1.5), -getSize(), getSize(), (int)(getSize() * 1.5), getSize()};
-        
-        //add body
-        super.add(xpoints, ypoints);
     }
     
     public static double getRandomDirection(final Random random)
@@ -76,6 +119,50 @@ public final class Meteor extends LevelObject implements IElement
         return (MIN_SPEED + (random.nextDouble() * MAX_SPEED));
     }
     
+    /**
+     * Set the size of the meteor and the body matching the size
+     * @param size The size in pixels
+     */
+    @Override
+    protected void setSize(final int size)
+    {
+        super.setSize(size);
+        super.set(0, Shape.get(Shape.Type.Meteor, size));
+    }
+    
+    /**
+     * Write the state of the meteor
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    @Override
+    public void write(final DataOutput out) throws IOException
+    {
+        super.write(out);
+        
+        out.writeInt(hits);
+        
+        //the direction hasn't been decided until the first update
+        out.writeByte((rotateClockwise == null) ? -1 : (rotateClockwise ? 1 : 0));
+    }
+    
+    /**
+     * Read the state written by write(), the parent meteor is not kept
+     * @param in Where the state is read from
+     * @throws IOException 
+     */
+    @Override
+    public void read(final DataInput in) throws IOException
+    {
+        super.read(in);
+        super.setParentId(0);
+        
+        this.hits = in.readInt();
+        
+        final byte rotate = in.readByte();
+        this.rotateClockwise = (rotate < 0) ? null : (rotate == 1);
+    }
+    
     /**
      * How many more hits does this meteor have
      * @return The # of hits the meteor has left
@@ -85,38 +172,71 @@ public final class Meteor extends LevelObject implements IElement
         return this.hits;
     }
     
-    @Override
-    public void update(final Engine engine)
+    /**
+     * Get the position of the meteor in the manager's list when the current update started
+     * @return The index of the meteor
+     */
+    public int getIndex()
     {
-        //check if the meteors have hit each other
-        for (Meteor tmp : engine.getManager().getMeteors())
+        return this.index;
+    }
+    
+    /**
+     * Set the position of the meteor in the manager's list
+     * @param index The index of the meteor
+     */
+    public void setIndex(final int index)
+    {
+        this.index = index;
+    }
+    
+    /**
+     * Remember the velocity of a meteor we have hit.<br>
+     * The velocities are only changed by applyCollision(), so every collision is resolved from the state before the update.
+     * @param meteor The meteor we have hit
+     */
+    public void addCollision(final Meteor meteor)
+    {
+        collisions++;
+        collisionVelocityX += meteor.getVelocityX();
+        collisionVelocityY += meteor.getVelocityY();
+    }
+    
+    /**
+     * Take the velocity of the meteors hit during this update and decide which way a new meteor rotates.<br>
+     * After hitting 1 meteor the directions are switched, after hitting more the velocity is the average of theirs.
+     * A random decision may be made, so meteors need to do this 1 at a time in the same order.
+     * @param random Object used to make random decisions
+     */
+    public void applyCollision(final Random random)
+    {
+        if (collisions > 0)
         {
-            //don't check the same meteor
-            if (getId() == tmp.getId())
-                continue;
-
-            if (hasCollision(tmp))
-            {
-                //switch directions
-                final double dx = getVelocityX();
-                final double dy = getVelocityY();
-
-                setVelocityX(tmp.getVelocityX());
-                setVelocityY(tmp.getVelocityY());
-
-                tmp.setVelocityX(dx);
-                tmp.setVelocityY(dy);
-
-                //update the meteor location
-                updateCoordinates(engine.getManager().getGameWindow());
-
-                break;
-            }
+            setVelocityX(collisionVelocityX / collisions);
+            setVelocityY(collisionVelocityY / collisions);
         }
         
         //determine if we rotate left or right
         if (rotateClockwise == null)
-            rotateClockwise = engine.getRandom().nextBoolean();
+            rotateClockwise = random.nextBoolean();
+    }
+    
+    /**
+     * Rotate and move the meteor, if there was a collision the meteor moves 1 extra step away from it.<br>
+     * Only this meteor is changed, so every meteor can move at the same time.
+     * @param window The area deemed inbounds
+     */
+    public void move(final Rectangle window)
+    {
+        if (collisions > 0)
+        {
+            //update the meteor location
+            updateCoordinates(window);
+            
+            collisions = 0;
+            collisionVelocityX = 0;
+            collisionVelocityY = 0;
+        }
         
         //rotate the meteor automatically
         if (rotateClockwise)
@@ -129,7 +249,19 @@ public final class Meteor extends LevelObject implements IElement
         }
         
         //move and update coordinates
-        updateCoordinates(engine.getManager().getGameWindow());
+        updateCoordinates(window);
+    }
+    
+    /**
+     * Respond to the collisions added by the manager and move.<br>
+     * The manager normally runs these steps for every meteor before the next step, so the meteors can move at the same time.
+     * @param engine Game engine
+     */
+    @Override
+    public void update(final Engine engine)
+    {
+        applyCollision(engine.getRandom());
+        move(engine.getManager().getGameWindow());
     }
     
     @Override
@@ -137,10 +269,45 @@ public final class Meteor extends LevelObject implements IElement
     {
         for (Polygon p : getBoundaries())
         {
-            graphics.setColor(Color.LIGHT_GRAY);
-            graphics.fillPolygon(p);
-            graphics.setColor(Color.ORANGE);
-            graphics.drawPolygon(p);
+            render(graphics, p);
         }
     }
+    
+    /**
+     * Draw a meteor body
+     * @param graphics Graphics object
+     * @param p The polygon at the location the meteor will be drawn
+     */
+    public static void render(final Graphics graphics, final Polygon p)
+    {
+        graphics.setColor(FILL_COLOR);
+        graphics.fillPolygon(p);
+        graphics.setColor(OUTLINE_COLOR);
+        graphics.drawPolygon(p);
+    }
+    
+    /**
+     * Add the commands to draw a meteor body
+     * @param commands The commands drawn each frame
+     * @param store The store containing the meteor
+     * @param index The index of the meteor in the store
+     */
+    public static void addCommands(final RenderCommands commands, final RenderStore store, final int index)
+    {
+        final Shape shape = Shape.get(Shape.Type.Meteor, store.getSize(index));
+        
+        commands.add(RenderCommands.Layer.Meteors, shape, store, index, FILL_COLOR, true);
+        commands.add(RenderCommands.Layer.Meteors, shape, store, index, OUTLINE_COLOR, false);
+    }
+    
+    /**
+     * Get the meteor body drawn ahead of time at every angle, it is drawn the first time it is needed
+     * @param size The size of the meteor
+     * @param angles The number of angles to draw
+     * @return The images of the meteor
+     */
+    public static ShapeAtlas getAtlas(final int size, final int angles)
+    {
+        return ShapeAtlas.get(Shape.get(Shape.Type.Meteor, size), FILL_COLOR, OUTLINE_COLOR, angles);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.gamesbykevin.asteroids.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The binary format shared by the replay recorder and player.<br>
+ * The header holds the seed and options, then each change of input is stored as
+ * the number of ticks the input stayed the same followed by the keys that changed.
+ * Every few seconds a keyframe with the entire game state is stored so playing can start from there.
+ * A replay ends with the total number of ticks, the hash of the final game state,
+ * and an index of the keyframes that can be found from the end of the file.
+ * @author GOD
+ */
+public final class Replay
+{
+    //identifies the file as a replay, "ASTR"
+    public static final int MAGIC = 0x41535452;
+
+    //the version of the format, increase when the format changes
+    public static final int VERSION = 4;
+
+    //the lowest bits of a record are the type, the remaining bits are the ticks the input stayed the same before it
+    protected static final int RECORD_TYPE_BITS = 2;
+    protected static final long RECORD_TYPE_MASK = (1 << RECORD_TYPE_BITS) - 1;
+
+    //the types of records
+    protected static final long RECORD_END = 0;
+    protected static final long RECORD_CHANGE = 1;
+    protected static final long RECORD_KEYFRAME = 2;
+
+    //each index entry is the tick and position of a keyframe
+    protected static final int INDEX_ENTRY_SIZE = 8 + 8;
+
+    //the end of the file: position of the index, number of entries and the magic value
+    protected static final int FOOTER_SIZE = 8 + 4 + 4;
+
+    private Replay()
+    {
+        //no instances, this class only has the format helpers
+    }
+
+    /**
+     * Write the value using 7 bits per byte, the highest bit marks that more bytes follow.<br>
+     * Small values such as short runs of ticks and the changed keys only take 1 or 2 bytes.
+     * @param out Where the value is written
+     * @param value The value, treated as unsigned
+     * @throws IOException
+     */
+    protected static void writeVarLong(final DataOutput out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int)value);
+    }
+
+    /**
+     * Read a value written by writeVarLong
+     * @param in Where the value is read from
+     * @return The value
+     * @throws IOException
+     */
+    protected static long readVarLong(final DataInput in) throws IOException
+    {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            final int tmp = in.readUnsignedByte();
+
+            value |= (long)(tmp & 0x7F) << shift;
+
+            if ((tmp & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Variable length value is too long");
+    }
+}
\ No newline at end of file
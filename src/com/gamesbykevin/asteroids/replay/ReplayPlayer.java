@@ -0,0 +1,418 @@
+package com.gamesbykevin.asteroids.replay;
+
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.input.InputSnapshot;
+import com.gamesbykevin.asteroids.main.FrameScheduler;
+import com.gamesbykevin.asteroids.manager.Settings;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Plays a recorded replay through a headless engine and checks the game ends in the same state.<br>
+ * When the replay is opened from a file it is memory mapped, so the player can seek to any tick
+ * by restoring the closest keyframe and only playing the ticks after it.
+ * @author GOD
+ */
+public final class ReplayPlayer
+{
+    //where the replay is read from
+    private DataInputStream in;
+
+    //the entire replay file, null if reading from a stream
+    private MappedByteBuffer file;
+
+    //the buffer the stream reads from when reading the file, moved when seeking
+    private ByteBuffer position;
+
+    //the seed used to make random decisions
+    private final long seed;
+
+    //the options the game was created with
+    private final Settings settings;
+
+    //the engine playing the replay
+    private Engine engine;
+
+    //the keys held down during the current run of ticks
+    private long keysDown = 0;
+
+    //the ticks left before the next record and the type of that record
+    private long remaining = 0, type = Replay.RECORD_END;
+
+    //the position of the first record, the index and the number of keyframes, only known when reading a file
+    private int firstRecord = 0;
+    private long indexPosition = 0;
+    private int keyframes = 0;
+
+    //the number of ticks and final hash stored at the end of the replay
+    private long expectedTicks, expectedHash;
+
+    //the number of ticks and final hash after playing
+    private long ticks, hash;
+
+    /**
+     * Create a player reading from a stream, a stream can only be played from start to finish
+     * @param stream Where the replay is read from, will be closed once played
+     * @throws Exception if the stream is not a replay or the version is not supported
+     */
+    public ReplayPlayer(final InputStream stream) throws Exception
+    {
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+
+        readHeader();
+
+        this.seed = in.readLong();
+        this.settings = Settings.read(in);
+
+        start();
+    }
+
+    /**
+     * Create a player reading from a file, the file is memory mapped so the player can seek
+     * @param path The replay file
+     * @throws Exception if the file is not a replay or the version is not supported
+     */
+    public ReplayPlayer(final File path) throws Exception
+    {
+        try (RandomAccessFile tmp = new RandomAccessFile(path, "r"))
+        {
+            //the mapping stays valid after the file is closed
+            this.file = tmp.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, tmp.length());
+        }
+
+        this.position = file.duplicate();
+        this.in = new DataInputStream(new BufferInputStream(position));
+
+        readHeader();
+
+        this.seed = in.readLong();
+        this.settings = Settings.read(in);
+        this.firstRecord = position.position();
+
+        //the footer tells us where the keyframe index is
+        if (file.getInt(file.limit() - 4) != Replay.MAGIC)
+            throw new IOException("The replay is not finished");
+
+        this.keyframes = file.getInt(file.limit() - 8);
+        this.indexPosition = file.getLong(file.limit() - Replay.FOOTER_SIZE);
+
+        start();
+    }
+
+    /**
+     * Read and check the magic value and version
+     * @throws IOException if this is not a replay or the version is not supported
+     */
+    private void readHeader() throws IOException
+    {
+        if (in.readInt() != Replay.MAGIC)
+            throw new IOException("This is not a replay");
+
+        final int version = in.readUnsignedByte();
+
+        if (version != Replay.VERSION)
+            throw new IOException("Replay version " + version + " is not supported");
+    }
+
+    /**
+     * Create the engine at the start of the game and read the first record
+     * @throws Exception
+     */
+    private void start() throws Exception
+    {
+        if (engine != null)
+            engine.dispose();
+
+        this.engine = new Engine(settings, seed);
+        this.keysDown = 0;
+        this.ticks = 0;
+
+        readRecord();
+    }
+
+    /**
+     * Read the type of the next record and the ticks before it
+     * @throws IOException
+     */
+    private void readRecord() throws IOException
+    {
+        final long record = Replay.readVarLong(in);
+
+        this.remaining = (record >>> Replay.RECORD_TYPE_BITS);
+        this.type = (record & Replay.RECORD_TYPE_MASK);
+    }
+
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    public Settings getSettings()
+    {
+        return this.settings;
+    }
+
+    /**
+     * Get the engine playing the replay, it contains the game at the current tick
+     * @return The engine
+     */
+    public Engine getEngine()
+    {
+        return this.engine;
+    }
+
+    /**
+     * Get the number of keyframes in the replay
+     * @return The count of keyframes, 0 when reading from a stream
+     */
+    public int getKeyframeCount()
+    {
+        return this.keyframes;
+    }
+
+    /**
+     * Move the game to the tick.<br>
+     * The closest keyframe at or before the tick is restored, then only the remaining ticks are played.
+     * @param tick The tick to move to, the game will be in the state before this tick is played
+     * @throws Exception if the replay was not opened from a file or the tick is past the end
+     */
+    public void seek(final long tick) throws Exception
+    {
+        if (file == null)
+            throw new IOException("Seeking requires a replay file");
+
+        //search the index for the last keyframe at or before the tick
+        int low = 0, high = keyframes - 1, found = -1;
+
+        while (low <= high)
+        {
+            final int middle = (low + high) >>> 1;
+
+            if (getKeyframeTick(middle) <= tick)
+            {
+                found = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        //if the keyframe is ahead of where we are, or we are past the tick, jump
+        if ((found >= 0 && getKeyframeTick(found) > ticks) || tick < ticks)
+        {
+            if (found < 0)
+            {
+                //no keyframe so start over
+                position.position(firstRecord);
+                start();
+            }
+            else
+            {
+                position.position((int)file.getLong((int)indexPosition + (found * Replay.INDEX_ENTRY_SIZE) + 8));
+
+                //restore the game state at the keyframe
+                keysDown = Replay.readVarLong(in);
+                in.readInt();
+                engine.readState(in);
+                ticks = getKeyframeTick(found);
+
+                readRecord();
+            }
+        }
+
+        //play the remaining ticks
+        while (ticks < tick)
+        {
+            if (!update(null))
+                throw new IOException("Tick " + tick + " is past the end of the replay");
+        }
+    }
+
+    /**
+     * Get the tick of the keyframe
+     * @param index The index of the keyframe
+     * @return The tick the keyframe was written before
+     */
+    private long getKeyframeTick(final int index)
+    {
+        return file.getLong((int)indexPosition + (index * Replay.INDEX_ENTRY_SIZE));
+    }
+
+    /**
+     * Play the rest of the replay
+     * @param realTime If true updates run at the normal speed, otherwise as fast as possible
+     * @return true if the game ended with the recorded state, false if the replay did not match
+     * @throws Exception
+     */
+    public boolean play(final boolean realTime) throws Exception
+    {
+        //only used to wait between updates when playing at the normal speed
+        final FrameScheduler scheduler = (realTime) ? new FrameScheduler(engine.getTime(), Double.POSITIVE_INFINITY, FrameScheduler.Policy.PowerSaving) : null;
+
+        try
+        {
+            while (update(scheduler))
+            {
+                //keep playing until the end
+            }
+
+            this.expectedTicks = Replay.readVarLong(in);
+            this.expectedHash = in.readLong();
+            this.hash = engine.getManager().getHash();
+        }
+        finally
+        {
+            in.close();
+            engine.dispose();
+        }
+
+        return (ticks == expectedTicks && hash == expectedHash);
+    }
+
+    /**
+     * Play 1 tick of the replay
+     * @param scheduler Decides when the update is due, null to update now
+     * @return true if a tick was played, false if the end of the replay was reached
+     * @throws Exception
+     */
+    private boolean update(final FrameScheduler scheduler) throws Exception
+    {
+        //apply the records due before this tick
+        while (remaining == 0)
+        {
+            if (type == Replay.RECORD_END)
+                return false;
+
+            if (type == Replay.RECORD_CHANGE)
+            {
+                keysDown ^= Replay.readVarLong(in);
+
+                final long keysPressed = Replay.readVarLong(in);
+
+                readRecord();
+
+                update(scheduler, new InputSnapshot(keysDown, keysPressed));
+                return true;
+            }
+
+            //we are already playing so skip over the keyframe
+            Replay.readVarLong(in);
+
+            for (int skip = in.readInt(); skip > 0; )
+            {
+                final int skipped = in.skipBytes(skip);
+
+                if (skipped <= 0)
+                    throw new EOFException();
+
+                skip -= skipped;
+            }
+
+            readRecord();
+        }
+
+        remaining--;
+
+        update(scheduler, new InputSnapshot(keysDown, 0));
+        return true;
+    }
+
+    /**
+     * Run 1 update with the input, waiting until the update is due if playing at the normal speed
+     * @param scheduler Decides when the update is due, null to update now
+     * @param input The keyboard state for the update
+     * @throws Exception
+     */
+    private void update(final FrameScheduler scheduler, final InputSnapshot input) throws Exception
+    {
+        if (scheduler != null)
+        {
+            scheduler.advance();
+
+            while (!scheduler.hasUpdate())
+            {
+                scheduler.waitForNext();
+                scheduler.advance();
+            }
+        }
+
+        engine.setInput(input);
+        engine.update();
+
+        ticks++;
+    }
+
+    public long getTicks()
+    {
+        return this.ticks;
+    }
+
+    public long getExpectedTicks()
+    {
+        return this.expectedTicks;
+    }
+
+    public long getHash()
+    {
+        return this.hash;
+    }
+
+    public long getExpectedHash()
+    {
+        return this.expectedHash;
+    }
+
+    /**
+     * Reads the memory mapped replay as a stream
+     */
+    private static final class BufferInputStream extends InputStream
+    {
+        //the buffer being read
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(final ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return (buffer.hasRemaining()) ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length)
+        {
+            if (!buffer.hasRemaining())
+                return -1;
+
+            final int count = Math.min(length, buffer.remaining());
+
+            buffer.get(bytes, offset, count);
+
+            return count;
+        }
+
+        @Override
+        public long skip(final long count)
+        {
+            final int skipped = (int)Math.max(0, Math.min(count, buffer.remaining()));
+
+            buffer.position(buffer.position() + skipped);
+
+            return skipped;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.gamesbykevin.asteroids.replay;
+
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.input.InputSnapshot;
+import com.gamesbykevin.asteroids.manager.Settings;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the seed, options and the input of every update so the game can be played again exactly.<br>
+ * Only the ticks where the input changed are written, the keys held down are stored as the bits that changed.
+ * The entire game state is written every few seconds so a player can seek without starting over.
+ * @author GOD
+ */
+public final class ReplayRecorder
+{
+    //where the replay is written
+    private DataOutputStream out;
+
+    //the keys held down during the previous tick
+    private long previousKeysDown = 0;
+
+    //the number of ticks since the input last changed
+    private long unchanged = 0;
+
+    //the number of ticks recorded
+    private long ticks = 0;
+
+    //how many ticks between each keyframe, 0 for no keyframes
+    private final int keyframeTicks;
+
+    //the tick and file position of each keyframe
+    private List<Long> keyframeTick, keyframePosition;
+
+    //re-usable buffer the game state is written to before it is added to the replay
+    private ByteArrayOutputStream state;
+    private DataOutputStream stateOut;
+
+    /**
+     * Create a recorder and write the header
+     * @param stream Where the replay is written, will be closed when the recording is finished
+     * @param settings The options the game was created with
+     * @param seed The seed used to make random decisions
+     * @param keyframeTicks How many ticks between each keyframe, 0 for no keyframes
+     * @throws IOException
+     */
+    public ReplayRecorder(final OutputStream stream, final Settings settings, final long seed, final int keyframeTicks) throws IOException
+    {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream));
+        this.keyframeTicks = keyframeTicks;
+        this.keyframeTick = new ArrayList<>();
+        this.keyframePosition = new ArrayList<>();
+        this.state = new ByteArrayOutputStream();
+        this.stateOut = new DataOutputStream(state);
+
+        out.writeInt(Replay.MAGIC);
+        out.writeByte(Replay.VERSION);
+        out.writeLong(seed);
+        settings.write(out);
+    }
+
+    /**
+     * Record the input used for 1 update, this needs to be called before the update
+     * @param input The keyboard state of the update
+     * @param engine The engine about to run the update, used to write keyframes
+     * @throws IOException
+     */
+    public void record(final InputSnapshot input, final Engine engine) throws IOException
+    {
+        if (keyframeTicks > 0 && ticks > 0 && ticks % keyframeTicks == 0)
+            writeKeyframe(engine);
+
+        if (input.getKeysDown() == previousKeysDown && input.getKeysPressed() == 0)
+        {
+            //nothing changed so only count the tick
+            unchanged++;
+        }
+        else
+        {
+            //store how long the previous input lasted and what changed
+            Replay.writeVarLong(out, (unchanged << Replay.RECORD_TYPE_BITS) | Replay.RECORD_CHANGE);
+            Replay.writeVarLong(out, input.getKeysDown() ^ previousKeysDown);
+            Replay.writeVarLong(out, input.getKeysPressed());
+
+            previousKeysDown = input.getKeysDown();
+            unchanged = 0;
+        }
+
+        ticks++;
+    }
+
+    /**
+     * Write the entire game state before the current tick and add it to the index
+     * @param engine The engine containing the game
+     * @throws IOException
+     */
+    private void writeKeyframe(final Engine engine) throws IOException
+    {
+        Replay.writeVarLong(out, (unchanged << Replay.RECORD_TYPE_BITS) | Replay.RECORD_KEYFRAME);
+
+        //the index points to the keys held down, that is all a player needs to continue from here
+        keyframeTick.add(ticks);
+        keyframePosition.add((long)out.size());
+
+        state.reset();
+        engine.writeState(stateOut);
+
+        Replay.writeVarLong(out, previousKeysDown);
+        out.writeInt(state.size());
+        state.writeTo(out);
+
+        unchanged = 0;
+    }
+
+    /**
+     * Get the number of updates recorded
+     * @return The count of ticks
+     */
+    public long getTicks()
+    {
+        return this.ticks;
+    }
+
+    /**
+     * Has the recording been finished
+     * @return true if nothing more can be recorded, false otherwise
+     */
+    public boolean hasFinished()
+    {
+        return (out == null);
+    }
+
+    /**
+     * Write the end of the replay and the keyframe index, then close the stream
+     * @param hash The hash of the game state after the last recorded update
+     * @throws IOException
+     */
+    public void finish(final long hash) throws IOException
+    {
+        if (hasFinished())
+            return;
+
+        Replay.writeVarLong(out, (unchanged << Replay.RECORD_TYPE_BITS) | Replay.RECORD_END);
+        Replay.writeVarLong(out, ticks);
+        out.writeLong(hash);
+
+        //fixed size entries so the index can be searched without reading all of it
+        final long indexPosition = out.size();
+
+        for (int i=0; i < keyframeTick.size(); i++)
+        {
+            out.writeLong(keyframeTick.get(i));
+            out.writeLong(keyframePosition.get(i));
+        }
+
+        out.writeLong(indexPosition);
+        out.writeInt(keyframeTick.size());
+        out.writeInt(Replay.MAGIC);
+        out.close();
+        out = null;
+
+        keyframeTick = null;
+        keyframePosition = null;
+        state = null;
+        stateOut = null;
+    }
+}
\ No newline at end of file
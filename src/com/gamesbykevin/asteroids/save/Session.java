@@ -0,0 +1,22 @@
+package com.gamesbykevin.asteroids.save;
+
+/**
+ * The binary format of a saved game.<br>
+ * The header holds the options the game was created with, followed by the state of the
+ * random generator and the manager, and ends with the hash of the game so a damaged or
+ * incompatible save is detected when it is restored.
+ * @author GOD
+ */
+public final class Session
+{
+    //identifies the file as a saved game, "ASAV"
+    public static final int MAGIC = 0x41534156;
+
+    //the version of the format, increase when the state written by the manager changes
+    public static final int VERSION = 3;
+
+    private Session()
+    {
+        //no instances, this class only has the format constants
+    }
+}
\ No newline at end of file
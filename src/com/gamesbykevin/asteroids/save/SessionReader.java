@@ -0,0 +1,66 @@
+package com.gamesbykevin.asteroids.save;
+
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.manager.Settings;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a game written by the SessionWriter.<br>
+ * The header is read first so the engine can create a game with the saved options,
+ * then the state is read into that game.
+ * @author GOD
+ */
+public final class SessionReader
+{
+    //where the save is read from
+    private final DataInputStream in;
+
+    //the options the saved game was created with
+    private final Settings settings;
+
+    /**
+     * Create a reader and read the header
+     * @param stream Where the save is read from, the stream is not closed
+     * @throws IOException if the stream is not a save or the version is not supported
+     */
+    public SessionReader(final InputStream stream) throws IOException
+    {
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+
+        if (in.readInt() != Session.MAGIC)
+            throw new IOException("This is not a saved game");
+
+        final int version = in.readUnsignedByte();
+
+        if (version != Session.VERSION)
+            throw new IOException("Save version " + version + " is not supported");
+
+        this.settings = Settings.read(in);
+    }
+
+    /**
+     * Get the options the saved game was created with
+     * @return The settings
+     */
+    public Settings getSettings()
+    {
+        return this.settings;
+    }
+
+    /**
+     * Read the state into the game
+     * @param engine The engine containing a game created with the saved settings
+     * @throws IOException if the restored game does not match the game that was saved
+     */
+    public void read(final Engine engine) throws IOException
+    {
+        engine.readState(in);
+
+        if (in.readLong() != engine.getManager().getHash())
+            throw new IOException("The saved game is damaged");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.gamesbykevin.asteroids.save;
+
+import com.gamesbykevin.asteroids.engine.Engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the game in progress so it can be continued later.<br>
+ * The state is written to a re-usable buffer first, so a save only allocates once the buffer has grown
+ * to the size of a typical game and the file is written in a single call.
+ * @author GOD
+ */
+public final class SessionWriter
+{
+    //re-usable buffer the save is written to before it is copied to the stream
+    private final ByteArrayOutputStream buffer;
+    private final DataOutputStream out;
+
+    //how long the last save took
+    private long duration = 0;
+
+    public SessionWriter()
+    {
+        this.buffer = new ByteArrayOutputStream();
+        this.out = new DataOutputStream(buffer);
+    }
+
+    /**
+     * Write the game to the stream, the stream is not closed
+     * @param engine The engine containing the game
+     * @param stream Where the game is written
+     * @throws IOException
+     */
+    public void write(final Engine engine, final OutputStream stream) throws IOException
+    {
+        final long start = System.nanoTime();
+
+        buffer.reset();
+
+        out.writeInt(Session.MAGIC);
+        out.writeByte(Session.VERSION);
+        engine.getSettings().write(out);
+
+        engine.writeState(out);
+
+        out.writeLong(engine.getManager().getHash());
+
+        buffer.writeTo(stream);
+
+        this.duration = System.nanoTime() - start;
+    }
+
+    /**
+     * Write the game to a file.<br>
+     * The game is written to a temporary file that then replaces the file,
+     * so a crash while saving does not destroy the previous save.
+     * @param engine The engine containing the game
+     * @param file Where the game is saved
+     * @throws IOException
+     */
+    public void save(final Engine engine, final File file) throws IOException
+    {
+        final File tmp = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream stream = new FileOutputStream(tmp))
+        {
+            write(engine, stream);
+        }
+
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Get the size of the last save
+     * @return The number of bytes
+     */
+    public int getSize()
+    {
+        return buffer.size();
+    }
+
+    /**
+     * Get how long the last save took to write, not including replacing the file
+     * @return The duration in nanoseconds
+     */
+    public long getDuration()
+    {
+        return this.duration;
+    }
+}
\ No newline at end of file
@@ -26,6 +26,18 @@ public final class Shared
     //show UPS/FPS counters
     public static final boolean DEBUG = false;
     
+    //number of meteors to start with to test collision performance, 0 for normal game play
+    public static final int STRESS_METEORS = 0;
+    
+    //use a pre-computed table for sine/cosine instead of calculating for every rotation
+    public static final boolean ROTATION_LOOKUP_TABLE = false;
+    
+    //use the separating axis test for polygon collision instead of checking if points are inside
+    public static final boolean COLLISION_SEPARATING_AXIS = false;
+    
+    //number of threads used to update large numbers of meteors, 0 to use every processor, 1 to only use the game thread
+    public static final int METEOR_THREADS = 0;
+    
     //do we hide mouse when the menu is not visible and actual gameplay started
     public static boolean HIDE_MOUSE = true;
     
@@ -35,6 +47,39 @@ public final class Shared
     //how many frames per second, controls how many images are rendered
     public static final int DEFAULT_FPS = 60;
     
+    //draw the game on a separate thread from the updates
+    public static final boolean RENDER_THREAD = false;
+    
+    //present frames by page flipping a Canvas BufferStrategy instead of drawing an image onto the container
+    public static final boolean PAGE_FLIPPING = false;
+    
+    //draw objects in between their last 2 updates so the updates per second can be lower than the frames per second
+    public static final boolean INTERPOLATION = false;
+    
+    //draw meteors and ships by copying images drawn ahead of time at a fixed number of angles instead of drawing polygons
+    public static final boolean SPRITE_ATLAS = false;
+    
+    //the number of angles each meteor and ship image is drawn at
+    public static final int SPRITE_ATLAS_ANGLES = 64;
+    
+    //draw every polygon from a list built when the game is updated, sorted so each color is set once per frame, replaces the sprite atlas
+    public static final boolean RENDER_COMMANDS = false;
+    
+    //write the seed, options and input of each game to a replay file in the working directory
+    public static final boolean RECORD_REPLAY = false;
+    
+    //how many ticks between each full game state stored in a replay, used to seek without playing from the start
+    public static final int REPLAY_KEYFRAME_TICKS = 600;
+    
+    //save the game in progress every few seconds and continue it when the next game is started with the same options
+    public static final boolean AUTOSAVE = false;
+    
+    //how many ticks between each autosave, 5 seconds at 60 updates per second
+    public static final int AUTOSAVE_TICKS = 300;
+    
+    //the file the game in progress is saved to in the working directory
+    public static final String AUTOSAVE_FILE = "autosave.bin";
+    
     //what is the name of our game
     public static final String GAME_NAME = "Asteroids";
     
@@ -2,22 +2,22 @@ package com.gamesbykevin.asteroids.ship;
 
 import com.gamesbykevin.asteroids.engine.Engine;
 import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.manager.Manager;
 import com.gamesbykevin.asteroids.menu.option.Mode;
+import com.gamesbykevin.asteroids.meteor.Meteor;
 import com.gamesbykevin.asteroids.resources.GameAudio;
 import com.gamesbykevin.asteroids.shared.IElement;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
 
 public class Cpu extends Ship implements IElement
 {
-    //determine when we are within range to fire
-    private static final double FIRE_RANGE_RATE = 10;
-    
-    //determine when we are too close and need to avoid death
-    private static final double DEATH_RANGE_RATE = FIRE_RANGE_RATE - 5;
-    
-    //the cpu will turn faster than average
-    private static final double TURN_RATE_BOOST = 6;
+    //the values that decide how we play: fire range, escape range and turn rate boost
+    private final CpuTuning tuning;
     
     //the meteor we are targeting
     private LevelObject target;
@@ -41,12 +41,29 @@ public class Cpu extends Ship implements IElement
     //the current assignent for the cpu
     private Action action; 
     
-    public Cpu(final int bulletLimit)
+    //how many updates between each time we look around and decide what to do
+    private final int planTicks;
+    
+    //the number of updates before we decide what to do again
+    private int planRemaining;
+    
+    /**
+     * Create the cpu
+     * @param bulletLimit The number of bullets we can have in the game at once
+     * @param planTicks How many updates between each time we decide what to do, the rest of the time we carry out the plan
+     * @param planOffset The updates to wait before the first plan, so several cpu ships don't plan during the same update
+     * @param tuning The values that decide how we play
+     */
+    public Cpu(final int bulletLimit, final int planTicks, final int planOffset, final CpuTuning tuning)
     {
         super(Color.YELLOW, bulletLimit);
         
         //set speed
         super.setSpeedRate(DEFAULT_SPEED_RATE);
+        
+        this.planTicks = Math.max(1, planTicks);
+        this.planRemaining = planOffset % this.planTicks;
+        this.tuning = tuning;
     }
     
     @Override
@@ -54,64 +71,26 @@ public class Cpu extends Ship implements IElement
     {
         //update standard things
         super.updateStandard(engine);
-     
-        //shortest distance found, because we want to avoid the closest
-        double shortest = Math.pow((getSize() * DEATH_RANGE_RATE), (getSize() * DEATH_RANGE_RATE));
         
-        //if we are playing race mode we target the meteors
-        if (engine.getManager().getMode() == Mode.Selections.Race || engine.getManager().getMode() == Mode.Selections.Cooperative)
-        {
-            //check if any meteors are within firing range or too close
-            for (LevelObject opponent : engine.getManager().getMeteors())
-            {
-                shortest = checkOpponent(opponent, shortest, hasShot(engine.getManager().getBullets()));
-            }
-        }
-        else
+        //only look around and decide what to do every few updates, depending on the opponent difficulty
+        if (planRemaining <= 0)
         {
-            //we are targeting the other ship
-            for (Ship opponent : engine.getManager().getShips())
-            {
-                //we don't want to attack our own ship
-                if (opponent.getId() == getId())
-                    continue;
-                
-                //if our opponent is invincible avoid them
-                if (opponent.hasInvincibility())
-                {
-                    setTarget(Action.Approach, opponent);
-                }
-                else
-                {
-                    shortest = checkOpponent(opponent, shortest, hasShot(engine.getManager().getBullets()));
-                }
-            }
+            plan(engine.getManager());
+            
+            planRemaining = planTicks;
         }
         
+        planRemaining--;
+        
         //check if we have been speeding previously
         final boolean previousSpeeding = hasSpeeding();
         
         //don't speed away yet
         setSpeeding(false);
 
-        //make sure we have an action and an target
-        if (action != null && target != null)
+        //carry out the plan every update
+        if (action != null)
         {
-            switch(action)
-            {
-                case Escape:
-                    calculateDestination(false);
-                    break;
-                    
-                case Attack:
-                    calculateDestination(true);
-                    break;
-                    
-                case Approach:
-                    calculateDestination(true);
-                    break;
-            }
-            
             //rotate ship accordingly
             rotateShip();
             
@@ -130,16 +109,16 @@ public class Cpu extends Ship implements IElement
                     case Attack:
                         
                         //are we able to fire a bullet
-                        if (hasShot(engine.getManager().getBullets()))
+                        if (hasShot(engine.getManager()))
                         {
                             if (engine.getManager().getBullets().isEmpty())
                             {
                                 //play sound effect
-                                engine.getResources().playGameAudio(GameAudio.Keys.Fire, false);
+                                engine.playGameAudio(GameAudio.Keys.Fire, false);
                             }
                             
                             //add bullet
-                            addBullet(engine.getManager().getBullets());
+                            engine.getManager().addBullet(this);
                         }
                         
                         break;
@@ -148,15 +127,130 @@ public class Cpu extends Ship implements IElement
             
             //if we weren't speeding and are now play effect
             if (!previousSpeeding && hasSpeeding())
-                engine.getResources().playGameAudio(GameAudio.Keys.Thrusters, true);
+                engine.playGameAudio(GameAudio.Keys.Thrusters, true);
             
             //if we were speeding and are no more stop sound
             if (previousSpeeding && !hasSpeeding())
-                engine.getResources().stopGameAudio(GameAudio.Keys.Thrusters);
+                engine.stopGameAudio(GameAudio.Keys.Thrusters);
+        }
+    }
+    
+    /**
+     * Find the closest threat or target and decide the action and the angle to turn towards
+     * @param manager The manager containing the meteors and ships
+     */
+    private void plan(final Manager manager)
+    {
+        //forget the previous plan
+        setTarget(null, null);
+        
+        //shortest distance found, because we want to avoid the closest
+        double shortest = Math.pow((getSize() * tuning.getDeathRangeRate()), (getSize() * tuning.getDeathRangeRate()));
+        
+        //if we are playing race mode we target the meteors
+        if (manager.getMode() == Mode.Selections.Race || manager.getMode() == Mode.Selections.Cooperative)
+        {
+            //only check the meteors within our firing range, this includes every meteor close enough to escape from
+            final List<Meteor> meteors = manager.getMeteors(this, Math.max(getSize() * tuning.getFireRangeRate(), Meteor.START_SIZE * tuning.getDeathRangeRate()));
+            
+            for (int i=0; i < meteors.size(); i++)
+            {
+                final LevelObject opponent = meteors.get(i);
+                
+                shortest = checkOpponent(opponent, shortest, hasShot(manager));
+            }
+            
+            //nothing is in our range so check the closest meteor, a large meteor can still be attacked from further away
+            if (action == null)
+            {
+                final List<Meteor> nearest = manager.getNearestMeteors(this, 1);
+                
+                for (int i=0; i < nearest.size(); i++)
+                {
+                    final LevelObject opponent = nearest.get(i);
+                    
+                    shortest = checkOpponent(opponent, shortest, hasShot(manager));
+                }
+            }
+        }
+        else
+        {
+            //we are targeting the other ship
+            final List<Ship> ships = manager.getShips();
             
-            //reset the target and action
-            setTarget(null, null);
+            for (int i=0; i < ships.size(); i++)
+            {
+                final Ship opponent = ships.get(i);
+                
+                //we don't want to attack our own ship
+                if (opponent.getId() == getId())
+                    continue;
+                
+                //if our opponent is invincible avoid them
+                if (opponent.hasInvincibility())
+                {
+                    setTarget(Action.Approach, opponent);
+                }
+                else
+                {
+                    shortest = checkOpponent(opponent, shortest, hasShot(manager));
+                }
+            }
+        }
+        
+        //make sure we have an action and an target
+        if (action != null && target != null)
+        {
+            switch(action)
+            {
+                case Escape:
+                    calculateDestination(false);
+                    break;
+                    
+                case Attack:
+                    calculateDestination(true);
+                    break;
+                    
+                case Approach:
+                    calculateDestination(true);
+                    break;
+            }
         }
+        
+        //the target may be removed before we plan again so only the angle is kept
+        this.target = null;
+    }
+    
+    /**
+     * Write the state of the ship and the current plan
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    @Override
+    public void write(final DataOutput out) throws IOException
+    {
+        super.write(out);
+        
+        out.writeByte((action != null) ? action.ordinal() : -1);
+        out.writeDouble(destination);
+        out.writeInt(planRemaining);
+    }
+    
+    /**
+     * Read the state written by write()
+     * @param in Where the state is read from
+     * @throws IOException 
+     */
+    @Override
+    public void read(final DataInput in) throws IOException
+    {
+        super.read(in);
+        
+        final int index = in.readByte();
+        
+        this.action = (index >= 0) ? Action.values()[index] : null;
+        this.destination = in.readDouble();
+        this.planRemaining = in.readInt();
     }
     
     /**
@@ -172,7 +266,7 @@ public class Cpu extends Ship implements IElement
         final double distance = super.getDistance(opponent);
 
         //if we aren't invisible or if it will be running out soon and we are too close to opponent
-        if ((!hasInvincibility() || isInvisibleAlmostOver()) && (distance <= opponent.getSize() * DEATH_RANGE_RATE || distance <= getSize() * DEATH_RANGE_RATE))
+        if ((!hasInvincibility() || isInvisibleAlmostOver()) && (distance <= opponent.getSize() * tuning.getDeathRangeRate() || distance <= getSize() * tuning.getDeathRangeRate()))
         {
             //is this the closest
             if (distance <= shortest)
@@ -191,7 +285,7 @@ public class Cpu extends Ship implements IElement
                 return shortest;
 
             //if we are within firing range
-            if (distance <= opponent.getSize() * FIRE_RANGE_RATE || distance <= getSize() * FIRE_RANGE_RATE)
+            if (distance <= opponent.getSize() * tuning.getFireRangeRate() || distance <= getSize() * tuning.getFireRangeRate())
             {
                 //is this the closest
                 if (distance <= shortest)
@@ -246,7 +340,7 @@ public class Cpu extends Ship implements IElement
             //if escaping we want the turning to be faster to allow escape
             if (action == Action.Escape)
             {
-                setAngle(getAngle() + (TURN_RATE * TURN_RATE_BOOST));
+                setAngle(getAngle() + (TURN_RATE * tuning.getTurnRateBoost()));
             }
             else
             {
@@ -263,7 +357,7 @@ public class Cpu extends Ship implements IElement
             //if escaping we want the turning to be faster to allow escape
             if (action == Action.Escape)
             {
-                setAngle(getAngle() - (TURN_RATE * TURN_RATE_BOOST));
+                setAngle(getAngle() - (TURN_RATE * tuning.getTurnRateBoost()));
             }
             else
             {
@@ -0,0 +1,97 @@
+package com.gamesbykevin.asteroids.ship;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The values that decide how the cpu plays.<br>
+ * Every cpu uses the default unless a different tuning is being tested.
+ * @author GOD
+ */
+public final class CpuTuning
+{
+    //the values the cpu has always played with
+    public static final CpuTuning DEFAULT = new CpuTuning(10, 5, 6);
+
+    //determine when we are within range to fire
+    private final double fireRangeRate;
+
+    //determine when we are too close and need to avoid death
+    private final double deathRangeRate;
+
+    //how much faster than average the cpu turns when escaping
+    private final double turnRateBoost;
+
+    /**
+     * Create the tuning
+     * @param fireRangeRate Multiplied by the size of an object to get the distance we will fire from
+     * @param deathRangeRate Multiplied by the size of an object to get the distance we will escape from
+     * @param turnRateBoost Multiplied by the turn rate when escaping
+     */
+    public CpuTuning(final double fireRangeRate, final double deathRangeRate, final double turnRateBoost)
+    {
+        this.fireRangeRate = fireRangeRate;
+        this.deathRangeRate = deathRangeRate;
+        this.turnRateBoost = turnRateBoost;
+    }
+
+    /**
+     * Create the tuning from text with the 3 values separated by a colon, for example "10:5:6"
+     * @param text The fire range rate, death range rate and turn rate boost
+     * @return The tuning
+     */
+    public static CpuTuning parse(final String text)
+    {
+        final String[] values = text.split(":");
+        
+        if (values.length != 3)
+            throw new IllegalArgumentException("Expected fire:death:turn, found " + text);
+        
+        return new CpuTuning(Double.parseDouble(values[0]), Double.parseDouble(values[1]), Double.parseDouble(values[2]));
+    }
+
+    /**
+     * Read the tuning written by write()
+     * @param in Where the tuning is read from
+     * @return The tuning
+     * @throws IOException 
+     */
+    public static CpuTuning read(final DataInput in) throws IOException
+    {
+        return new CpuTuning(in.readDouble(), in.readDouble(), in.readDouble());
+    }
+
+    /**
+     * Write the values
+     * @param out Where the tuning is written
+     * @throws IOException 
+     */
+    public void write(final DataOutput out) throws IOException
+    {
+        out.writeDouble(fireRangeRate);
+        out.writeDouble(deathRangeRate);
+        out.writeDouble(turnRateBoost);
+    }
+
+    public double getFireRangeRate()
+    {
+        return this.fireRangeRate;
+    }
+
+    public double getDeathRangeRate()
+    {
+        return this.deathRangeRate;
+    }
+
+    public double getTurnRateBoost()
+    {
+        return this.turnRateBoost;
+    }
+
+    @Override
+    public String toString()
+    {
+        return fireRangeRate + ":" + deathRangeRate + ":" + turnRateBoost;
+    }
+}
\ No newline at end of file
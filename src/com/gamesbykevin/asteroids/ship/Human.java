@@ -1,6 +1,7 @@
 package com.gamesbykevin.asteroids.ship;
 
 import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.input.InputSnapshot;
 import com.gamesbykevin.asteroids.resources.GameAudio;
 import com.gamesbykevin.asteroids.shared.IElement;
 
@@ -20,66 +21,52 @@ public class Human extends Ship implements IElement
         //update standard things
         super.updateStandard(engine);
         
-        if (engine.getKeyboard().hasKeyReleased(KeyEvent.VK_LEFT))
-        {
-            engine.getKeyboard().removeKeyPressed(KeyEvent.VK_LEFT);
-            engine.getKeyboard().removeKeyReleased(KeyEvent.VK_LEFT);
-        }
+        //the keyboard state for this update
+        final InputSnapshot input = engine.getInput();
         
-        if (engine.getKeyboard().hasKeyReleased(KeyEvent.VK_RIGHT))
-        {
-            engine.getKeyboard().removeKeyPressed(KeyEvent.VK_RIGHT);
-            engine.getKeyboard().removeKeyReleased(KeyEvent.VK_RIGHT);
-        }
-        
-        if (engine.getKeyboard().hasKeyReleased(KeyEvent.VK_UP))
+        //if up is no longer held stop speeding
+        if (!input.hasKeyDown(KeyEvent.VK_UP) && hasSpeeding())
         {
             //stop sound effect
-            engine.getResources().stopGameAudio(GameAudio.Keys.Thrusters);
+            engine.stopGameAudio(GameAudio.Keys.Thrusters);
             
             //no longer speeding
             setSpeeding(false);
-            
-            engine.getKeyboard().removeKeyPressed(KeyEvent.VK_UP);
-            engine.getKeyboard().removeKeyReleased(KeyEvent.VK_UP);
         }
         
-        //was left pressed on the keyboard
-        if (engine.getKeyboard().hasKeyPressed(KeyEvent.VK_LEFT))
+        //is left held on the keyboard
+        if (input.hasKeyDown(KeyEvent.VK_LEFT))
             super.setAngle(super.getAngle() - TURN_RATE);
         
-        //was right pressed on the keyboard
-        if (engine.getKeyboard().hasKeyPressed(KeyEvent.VK_RIGHT))
+        //is right held on the keyboard
+        if (input.hasKeyDown(KeyEvent.VK_RIGHT))
             super.setAngle(super.getAngle() + TURN_RATE);
         
-        //was up pressed on the keyboard
-        if (engine.getKeyboard().hasKeyPressed(KeyEvent.VK_UP) && !hasSpeeding())
+        //is up held on the keyboard
+        if (input.hasKeyDown(KeyEvent.VK_UP) && !hasSpeeding())
         {
             //play sound effect
-            engine.getResources().playGameAudio(GameAudio.Keys.Thrusters, true);
+            engine.playGameAudio(GameAudio.Keys.Thrusters, true);
             
             //we are speeding
             setSpeeding(true);
         }
         
         //was space bar pressed and we are not speeding
-        if (engine.getKeyboard().hasKeyPressed(KeyEvent.VK_SPACE) && !hasSpeeding())
+        if (input.hasKeyPressed(KeyEvent.VK_SPACE) && !hasSpeeding())
         {
             //are we able to fire a bullet
-            if (hasShot(engine.getManager().getBullets()))
+            if (hasShot(engine.getManager()))
             {
                 if (engine.getManager().getBullets().isEmpty())
                 {
                     //play sound effect
-                    engine.getResources().playGameAudio(GameAudio.Keys.Fire, false);
+                    engine.playGameAudio(GameAudio.Keys.Fire, false);
                 }
                 
                 //add bullet
-                addBullet(engine.getManager().getBullets());
+                engine.getManager().addBullet(this);
             }
-            
-            //no longer pressing space
-            engine.getKeyboard().removeKeyPressed(KeyEvent.VK_SPACE);
         }
     }
 }
\ No newline at end of file
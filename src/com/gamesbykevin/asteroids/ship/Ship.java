@@ -3,14 +3,22 @@ package com.gamesbykevin.asteroids.ship;
 import com.gamesbykevin.framework.util.Timer;
 import com.gamesbykevin.framework.util.Timers;
 
-import com.gamesbykevin.asteroids.bullet.Bullet;
 import com.gamesbykevin.asteroids.engine.Engine;
 import com.gamesbykevin.asteroids.levelobject.LevelObject;
+import com.gamesbykevin.asteroids.levelobject.Shape;
+import com.gamesbykevin.asteroids.levelobject.ShapeAtlas;
+import com.gamesbykevin.asteroids.manager.RenderStore;
+import com.gamesbykevin.asteroids.manager.Manager;
+import com.gamesbykevin.asteroids.manager.RenderCommands;
 import com.gamesbykevin.asteroids.meteor.Meteor;
 import com.gamesbykevin.asteroids.resources.GameAudio;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Polygon;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 public abstract class Ship extends LevelObject
@@ -33,14 +41,6 @@ public abstract class Ship extends LevelObject
     //slow down rate
     private final double SPEED_DECELERATE = .995;
     
-    //relative coordinates for the body facing east by default
-    private final int[] XPOINTS_BODY = {SIZE, -(SIZE/2), 0, -(SIZE/2)};
-    private final int[] YPOINTS_BODY = {0, -(SIZE/2), 0, (SIZE/2)};
-    
-    //relative coordinates for the thrust facing east by default
-    private final int[] XPOINTS_THRUST = {-SIZE, 0, 0};
-    private final int[] YPOINTS_THRUST = {0, -(SIZE/4), (SIZE/4)};
-    
     //the # of lives our ship has
     private int lives = 1;
     
@@ -71,8 +71,8 @@ public abstract class Ship extends LevelObject
         this.bulletLimit = bulletLimit;
         
         //add ship body and thrust as our polygon objects
-        super.add(XPOINTS_THRUST, YPOINTS_THRUST);
-        super.add(XPOINTS_BODY, YPOINTS_BODY);
+        super.add(Shape.get(Shape.Type.ShipThrust, SIZE));
+        super.add(Shape.get(Shape.Type.ShipBody, SIZE));
         
         //create our timer
         this.timer = new Timer(SAFE_SPAWN_DELAY);
@@ -98,7 +98,7 @@ public abstract class Ship extends LevelObject
         return this.lives;
     }
     
-    protected boolean hasSpeeding()
+    public boolean hasSpeeding()
     {
         return this.speeding;
     }
@@ -118,18 +118,6 @@ public abstract class Ship extends LevelObject
         return this.speedRate;
     }
     
-    protected void addBullet(final List<Bullet> bullets)
-    {
-        //create bullet
-        Bullet bullet = new Bullet(this);
-
-        //mark parent
-        bullet.setParentId(getId());
-
-        //add bullet to list
-        bullets.add(bullet);
-    }
-    
     public Color getColor()
     {
         return this.color;
@@ -137,12 +125,12 @@ public abstract class Ship extends LevelObject
     
     /**
      * Checks to see if we are able to shoot
-     * @param bullets The bullets to check
+     * @param manager The manager counting the bullets each ship has fired
      * @return true if we can shoot, false otherwise
      */
-    protected boolean hasShot(final List<Bullet> bullets)
+    protected boolean hasShot(final Manager manager)
     {
-        return (getBulletCount(bullets) < bulletLimit);
+        return (manager.getBulletCount(getId()) < bulletLimit);
     }
     
     protected int getBulletLimit()
@@ -150,24 +138,6 @@ public abstract class Ship extends LevelObject
         return this.bulletLimit;
     }
     
-    /**
-     * Count how many bullets we have fired
-     * @return the count of bullets fired
-     */
-    private int getBulletCount(final List<Bullet> bullets)
-    {
-        //the count
-        int count = 0;
-        
-        for (Bullet bullet : bullets)
-        {
-            if (bullet.getParentId() == getId())
-                count++;
-        }
-        
-        return count;
-    }
-    
     /**
      * Determine the speed of ship and update the location
      */
@@ -192,6 +162,38 @@ public abstract class Ship extends LevelObject
         super.dispose();
     }
     
+    /**
+     * Write the state of the ship
+     * @param out Where the state is written
+     * @throws IOException 
+     */
+    @Override
+    public void write(final DataOutput out) throws IOException
+    {
+        super.write(out);
+        
+        out.writeBoolean(speeding);
+        out.writeInt(lives);
+        out.writeInt(kills);
+        out.writeLong(timer.getRemaining());
+    }
+    
+    /**
+     * Read the state written by write()
+     * @param in Where the state is read from
+     * @throws IOException 
+     */
+    @Override
+    public void read(final DataInput in) throws IOException
+    {
+        super.read(in);
+        
+        this.speeding = in.readBoolean();
+        this.lives = in.readInt();
+        this.kills = in.readInt();
+        this.timer.setRemaining(in.readLong());
+    }
+    
     /**
      * Reset angle to 0
      */
@@ -235,9 +237,13 @@ public abstract class Ship extends LevelObject
         //if we aren't invincible check for collision
         if (!hasInvincibility())
         {
-            //check if the meteors have hit a ship
-            for (Meteor meteor : engine.getManager().getMeteors())
+            //check if the meteors close to the ship have hit it
+            final List<Meteor> meteors = engine.getManager().getMeteors(this);
+            
+            for (int i=0; i < meteors.size(); i++)
             {
+                final Meteor meteor = meteors.get(i);
+                
                 //if we have hit the meteor
                 if (hasCollision(meteor))
                 {
@@ -252,7 +258,7 @@ public abstract class Ship extends LevelObject
         else
         {
             //update timer
-            timer.update(engine.getMain().getTime());
+            timer.update(engine.getTime());
         }
         
         //calculate slow down rate
@@ -270,7 +276,7 @@ public abstract class Ship extends LevelObject
     @Override
     public boolean hasCollision(final LevelObject object)
     {
-        return hasCollision(getBoundaries().get(1), object.getBoundaries().get(0));
+        return hasBoundaryCollision(1, object, 0);
     }
     
     @Override
@@ -279,40 +285,98 @@ public abstract class Ship extends LevelObject
     @Override
     public void render(final Graphics graphics)
     {
-        //draw each boundary
-        for (int i=0; i < getBoundaries().size(); i++)
+        render(graphics, getBoundaries().get(0), getBoundaries().get(1), color, speeding, hasInvincibility());
+    }
+    
+    /**
+     * Draw a ship, the outline is drawn instead of filled while the ship is invincible
+     * @param graphics Graphics object
+     * @param thrust The polygon at the location the thrust will be drawn
+     * @param body The polygon at the location the body will be drawn
+     * @param color The color of the ship
+     * @param speeding Are we accelerating, the thrust is only drawn if true
+     * @param invincible Is the ship invincible
+     */
+    public static void render(final Graphics graphics, final Polygon thrust, final Polygon body, final Color color, final boolean speeding, final boolean invincible)
+    {
+        //only draw the thrust if we are accelerating
+        if (speeding)
         {
-            //is this the thrust polygon
-            if (i == 0)
+            graphics.setColor(Color.RED);
+
+            if (!invincible)
             {
-                //only draw the thrust if we are accelerating
-                if (speeding)
-                {
-                    graphics.setColor(Color.RED);
-                    
-                    if (!hasInvincibility())
-                    {
-                        graphics.fillPolygon(getBoundaries().get(i));
-                    }
-                    else
-                    {
-                        graphics.drawPolygon(getBoundaries().get(i));
-                    }
-                }
+                graphics.fillPolygon(thrust);
             }
             else
             {
-                graphics.setColor(color);
-                
-                if (!hasInvincibility())
-                {
-                    graphics.fillPolygon(getBoundaries().get(i));
-                }
-                else
-                {
-                    graphics.drawPolygon(getBoundaries().get(i));
-                }
+                graphics.drawPolygon(thrust);
             }
         }
+        
+        graphics.setColor(color);
+
+        if (!invincible)
+        {
+            graphics.fillPolygon(body);
+        }
+        else
+        {
+            graphics.drawPolygon(body);
+        }
+    }
+    
+    /**
+     * Add the commands to draw a ship, the outline is drawn instead of filled while the ship is invincible
+     * @param commands The commands drawn each frame
+     * @param store The store containing the ship
+     * @param index The index of the ship in the store
+     * @param color The color of the ship
+     * @param speeding Are we accelerating, the thrust is only drawn if true
+     * @param invincible Is the ship invincible
+     */
+    public static void addCommands(final RenderCommands commands, final RenderStore store, final int index, final Color color, final boolean speeding, final boolean invincible)
+    {
+        //only draw the thrust if we are accelerating
+        if (speeding)
+            commands.add(RenderCommands.Layer.Thrust, Shape.get(Shape.Type.ShipThrust, store.getSize(index)), store, index, Color.RED, !invincible);
+        
+        commands.add(RenderCommands.Layer.Body, Shape.get(Shape.Type.ShipBody, store.getSize(index)), store, index, color, !invincible);
+    }
+    
+    /**
+     * Draw a ship from the images drawn ahead of time
+     * @param graphics Graphics object
+     * @param thrust The images of the thrust, matching if the ship is invincible
+     * @param body The images of the body, matching if the ship is invincible
+     * @param x x-coordinate of the ship
+     * @param y y-coordinate of the ship
+     * @param angle The angle of the ship in radians
+     * @param speeding Are we accelerating, the thrust is only drawn if true
+     */
+    public static void render(final Graphics graphics, final ShapeAtlas thrust, final ShapeAtlas body, final double x, final double y, final double angle, final boolean speeding)
+    {
+        //only draw the thrust if we are accelerating
+        if (speeding)
+            thrust.draw(graphics, x, y, angle);
+        
+        body.draw(graphics, x, y, angle);
+    }
+    
+    /**
+     * Get a part of the ship drawn ahead of time at every angle, it is drawn the first time it is needed.<br>
+     * The outline is drawn instead of filled while the ship is invincible.
+     * @param type The part of the ship, ShipBody or ShipThrust
+     * @param size The size of the ship
+     * @param color The color of the ship, the thrust is always red
+     * @param invincible Is the ship invincible
+     * @param angles The number of angles to draw
+     * @return The images of the part
+     */
+    public static ShapeAtlas getAtlas(final Shape.Type type, final int size, final Color color, final boolean invincible, final int angles)
+    {
+        final Color tmp = (type == Shape.Type.ShipThrust) ? Color.RED : color;
+        
+        return ShapeAtlas.get(Shape.get(type, size), (invincible) ? null : tmp, (invincible) ? tmp : null, angles);
     }
 }
\ No newline at end of file
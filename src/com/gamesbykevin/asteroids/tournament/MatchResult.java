@@ -0,0 +1,104 @@
+package com.gamesbykevin.asteroids.tournament;
+
+/**
+ * The outcome of 1 match played without a display.<br>
+ * The player is the first ship and the opponent is the second, the opponent is missing in Original mode.
+ * @author GOD
+ */
+public final class MatchResult
+{
+    //the number of updates played and the level reached
+    private final int ticks, level;
+
+    //the meteors and ships destroyed by each ship
+    private final int playerKills, opponentKills;
+
+    //the updates each ship lasted before losing every life
+    private final int playerSurvival, opponentSurvival;
+
+    //does each ship still have a life at the end
+    private final boolean playerAlive, opponentAlive;
+
+    //how long the match took to play
+    private final long nanoSeconds;
+
+    public MatchResult(final int ticks, final int level, final int playerKills, final int opponentKills, final int playerSurvival, final int opponentSurvival, final boolean playerAlive, final boolean opponentAlive, final long nanoSeconds)
+    {
+        this.ticks = ticks;
+        this.level = level;
+        this.playerKills = playerKills;
+        this.opponentKills = opponentKills;
+        this.playerSurvival = playerSurvival;
+        this.opponentSurvival = opponentSurvival;
+        this.playerAlive = playerAlive;
+        this.opponentAlive = opponentAlive;
+        this.nanoSeconds = nanoSeconds;
+    }
+
+    public int getTicks()
+    {
+        return this.ticks;
+    }
+
+    public int getLevel()
+    {
+        return this.level;
+    }
+
+    public int getPlayerKills()
+    {
+        return this.playerKills;
+    }
+
+    public int getOpponentKills()
+    {
+        return this.opponentKills;
+    }
+
+    /**
+     * Get how long the player lasted
+     * @return The number of updates before the player lost every life, the match length if they never did
+     */
+    public int getPlayerSurvival()
+    {
+        return this.playerSurvival;
+    }
+
+    /**
+     * Get how long the opponent lasted
+     * @return The number of updates before the opponent lost every life, the match length if they never did
+     */
+    public int getOpponentSurvival()
+    {
+        return this.opponentSurvival;
+    }
+
+    /**
+     * Did the player win, the last ship alive wins otherwise the ship with the most kills
+     * @return true if the player won, false if the opponent won or it was a draw
+     */
+    public boolean hasPlayerWon()
+    {
+        if (playerAlive != opponentAlive)
+            return playerAlive;
+
+        return (playerKills > opponentKills);
+    }
+
+    /**
+     * Did the opponent win, the last ship alive wins otherwise the ship with the most kills
+     * @return true if the opponent won, false if the player won or it was a draw
+     */
+    public boolean hasOpponentWon()
+    {
+        if (playerAlive != opponentAlive)
+            return opponentAlive;
+
+        return (opponentKills > playerKills);
+    }
+
+    public long getNanoSeconds()
+    {
+        return this.nanoSeconds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.gamesbykevin.asteroids.tournament;
+
+import com.gamesbykevin.asteroids.engine.Engine;
+import com.gamesbykevin.asteroids.manager.Settings;
+import com.gamesbykevin.asteroids.shared.Shared;
+import com.gamesbykevin.asteroids.ship.Ship;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays many matches without a display in parallel on a ForkJoinPool.<br>
+ * Every group of settings plays the same seeds, so different cpu tunings are compared on the same games.
+ * Each match runs in its own engine on 1 thread, the results are stored by index and
+ * combined in order once every match is finished so the report is the same no matter how many threads are used.
+ * @author GOD
+ */
+public final class Tournament
+{
+    //the header of the csv report
+    private static final String REPORT_HEADER = "mode,player_tuning,opponent_tuning,matches,player_wins,opponent_wins,draws,avg_player_kills,avg_opponent_kills,avg_player_survival_s,avg_opponent_survival_s,avg_level,avg_ticks,ticks_per_sec";
+
+    //the groups of settings to play
+    private final List<Settings> settings;
+
+    //the number of matches each group of settings plays
+    private final int matches;
+
+    //a match that has not ended after this many updates is stopped
+    private final int maxTicks;
+
+    //the result of every match, stored by group then seed
+    private final MatchResult[] results;
+
+    /**
+     * Create the tournament
+     * @param settings The groups of settings to play
+     * @param matches The number of matches each group of settings plays, match n uses seed n
+     * @param maxTicks A match that has not ended after this many updates is stopped
+     */
+    public Tournament(final List<Settings> settings, final int matches, final int maxTicks)
+    {
+        this.settings = settings;
+        this.matches = matches;
+        this.maxTicks = maxTicks;
+        this.results = new MatchResult[settings.size() * matches];
+    }
+
+    /**
+     * Play every match
+     * @param threads The number of threads to play on
+     */
+    public void run(final int threads)
+    {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try
+        {
+            pool.invoke(new MatchTask(0, results.length));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play a range of matches, splitting the range in half until only 1 match is left so idle threads can steal work
+     */
+    private final class MatchTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        //the first match and the match after the last
+        private final int start, end;
+
+        private MatchTask(final int start, final int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start == 1)
+            {
+                try
+                {
+                    results[start] = play(settings.get(start / matches), start % matches, maxTicks);
+                }
+                catch (Exception e)
+                {
+                    throw new RuntimeException("Match " + start + " could not be played", e);
+                }
+
+                return;
+            }
+
+            final int middle = (start + end) >>> 1;
+
+            invokeAll(new MatchTask(start, middle), new MatchTask(middle, end));
+        }
+    }
+
+    /**
+     * Play 1 match until the game is over or too much time has passed
+     * @param settings The options to play the game with
+     * @param seed The seed used to make random decisions
+     * @param maxTicks A match that has not ended after this many updates is stopped
+     * @return The result of the match
+     * @throws Exception
+     */
+    public static MatchResult play(final Settings settings, final long seed, final int maxTicks) throws Exception
+    {
+        final long start = System.nanoTime();
+
+        final Engine engine = new Engine(settings, seed);
+
+        final List<Ship> ships = engine.getManager().getShips();
+
+        //the updates each ship lasted, 0 while the ship still has a life
+        final int[] survival = new int[ships.size()];
+
+        int ticks = 0;
+
+        while (!engine.getManager().hasGameOver() && ticks < maxTicks)
+        {
+            engine.update();
+            ticks++;
+
+            for (int i = 0; i < ships.size(); i++)
+            {
+                //a dead ship without lives will not come back
+                if (survival[i] == 0 && ships.get(i).isDead() && ships.get(i).getLives() == 0)
+                    survival[i] = ticks;
+            }
+        }
+
+        final boolean hasOpponent = (ships.size() > 1);
+
+        final MatchResult result = new MatchResult(
+            ticks,
+            engine.getManager().getLevel(),
+            ships.get(0).getKills(),
+            (hasOpponent) ? ships.get(1).getKills() : 0,
+            (survival[0] > 0) ? survival[0] : ticks,
+            (hasOpponent && survival[1] > 0) ? survival[1] : ticks,
+            (survival[0] == 0),
+            (hasOpponent && survival[1] == 0),
+            System.nanoTime() - start);
+
+        engine.dispose();
+
+        return result;
+    }
+
+    /**
+     * Get the result of a match
+     * @param group The index of the settings
+     * @param seed The seed of the match
+     * @return The result, null if the tournament has not been run
+     */
+    public MatchResult getResult(final int group, final int seed)
+    {
+        return results[(group * matches) + seed];
+    }
+
+    /**
+     * Write 1 csv line for each group of settings with the combined results of its matches
+     * @param out Where the report is written
+     */
+    public void writeReport(final PrintWriter out)
+    {
+        out.println(REPORT_HEADER);
+
+        for (int group = 0; group < settings.size(); group++)
+        {
+            int playerWins = 0, opponentWins = 0;
+            long playerKills = 0, opponentKills = 0, playerSurvival = 0, opponentSurvival = 0, level = 0, ticks = 0, nanoSeconds = 0;
+
+            for (int seed = 0; seed < matches; seed++)
+            {
+                final MatchResult result = getResult(group, seed);
+
+                if (result.hasPlayerWon())
+                    playerWins++;
+                if (result.hasOpponentWon())
+                    opponentWins++;
+
+                playerKills      += result.getPlayerKills();
+                opponentKills    += result.getOpponentKills();
+                playerSurvival   += result.getPlayerSurvival();
+                opponentSurvival += result.getOpponentSurvival();
+                level            += result.getLevel();
+                ticks            += result.getTicks();
+                nanoSeconds      += result.getNanoSeconds();
+            }
+
+            final Settings tmp = settings.get(group);
+
+            out.println(String.format(Locale.US, "%s,%s,%s,%d,%d,%d,%d,%.2f,%.2f,%.1f,%.1f,%.2f,%.0f,%.0f",
+                tmp.getMode(),
+                (tmp.getPlayerTuning() != null) ? tmp.getPlayerTuning() : "human",
+                tmp.getOpponentTuning(),
+                matches,
+                playerWins,
+                opponentWins,
+                matches - playerWins - opponentWins,
+                (double)playerKills / matches,
+                (double)opponentKills / matches,
+                playerSurvival / (double)Shared.DEFAULT_UPS / matches,
+                opponentSurvival / (double)Shared.DEFAULT_UPS / matches,
+                (double)level / matches,
+                (double)ticks / matches,
+                ticks / (nanoSeconds / 1000000000.0)));
+        }
+
+        out.flush();
+    }
+}
\ No newline at end of file